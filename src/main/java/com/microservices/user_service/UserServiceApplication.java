@@ -1,11 +1,16 @@
 package com.microservices.user_service;
 
+import com.microservices.user_service.limiter.DatabaseConcurrencyLimitAspect;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
-@EnableCaching
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableCaching(order = DatabaseConcurrencyLimitAspect.CACHE_ORDER)
+@EnableScheduling
 public class UserServiceApplication {
 
 	public static void main(String[] args) {
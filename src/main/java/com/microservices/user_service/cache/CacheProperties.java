@@ -0,0 +1,32 @@
+package com.microservices.user_service.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+    private Duration defaultTtl = Duration.ofMinutes(10);
+    private Duration nullValueTtl = Duration.ofSeconds(30);
+    private double ttlJitter = 0.1;
+    private Map<String, Duration> ttl = new LinkedHashMap<>();
+    private int clearBatchSize = 1000;
+    private int memorySampleSize = 100;
+    private Resilience resilience = new Resilience();
+
+    /**
+     * Degraded mode while Redis is unavailable, see {@link RedisCircuitBreaker}.
+     */
+    @Data
+    public static class Resilience {
+        private int failureThreshold = 3;
+        private Duration openDuration = Duration.ofSeconds(5);
+        private int maxPendingEvictions = 1000;
+        private long localMaxSize = 10_000;
+        private Duration localTtl = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,35 @@
+package com.microservices.user_service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Entry TTLs per cache. Each TTL is spread by {@code ttl-jitter} in both directions so entries written
+ * together (e.g. after a full eviction) do not all expire in the same second; not-found results are kept
+ * for the much shorter {@code null-value-ttl}.
+ */
+@RequiredArgsConstructor
+public class CacheTtlPolicy {
+    private final CacheProperties properties;
+
+    public Duration timeToLive(String cacheName, Object value) {
+        if (value == null) {
+            return properties.getNullValueTtl();
+        }
+        Duration ttl = properties.getTtl().getOrDefault(cacheName, properties.getDefaultTtl());
+        double jitter = properties.getTtlJitter();
+        if (jitter <= 0) {
+            return ttl;
+        }
+        long millis = ttl.toMillis();
+        long spread = (long) (millis * jitter);
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(-spread, spread + 1));
+    }
+
+    public RedisCacheWriter.TtlFunction ttlFunction(String cacheName) {
+        return (key, value) -> timeToLive(cacheName, value);
+    }
+}
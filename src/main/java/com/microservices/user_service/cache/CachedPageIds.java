@@ -0,0 +1,11 @@
+package com.microservices.user_service.cache;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Ordered ids of one result page and whether a next page exists. The entities themselves live in their own
+ * per-id cache entries, totals in the {@code rowCounts} cache.
+ */
+public record CachedPageIds(List<Long> ids, boolean hasNext) implements Serializable {
+}
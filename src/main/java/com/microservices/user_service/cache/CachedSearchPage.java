@@ -0,0 +1,11 @@
+package com.microservices.user_service.cache;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Ranked ids of one search result page, the cursor of the next page (null on the last one) and whether more users
+ * matched than were ranked. Like {@link CachedPageIds}, the users themselves live in their per-id entries.
+ */
+public record CachedSearchPage(List<Long> ids, String next, boolean truncated) implements Serializable {
+}
@@ -0,0 +1,33 @@
+package com.microservices.user_service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process caches used instead of Redis while {@link RedisCircuitBreaker} is open. Each cache name gets
+ * its own bounded cache with a short TTL, since other instances may change the data in the meantime.
+ * Entries are dropped once Redis is back.
+ */
+public class LocalFallbackCaches {
+    private final CacheProperties.Resilience properties;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public LocalFallbackCaches(CacheProperties.Resilience properties) {
+        this.properties = properties;
+    }
+
+    public Cache get(String name) {
+        return caches.computeIfAbsent(name, key -> new CaffeineCache(key, Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxSize())
+                .expireAfterWrite(properties.getLocalTtl())
+                .build(), true));
+    }
+
+    public void clear() {
+        caches.values().forEach(Cache::clear);
+    }
+}
@@ -0,0 +1,144 @@
+package com.microservices.user_service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Admin view of the Redis caches: key counts, estimated memory and hit statistics per cache, listing of
+ * keys with their remaining TTL, and eviction of a single key or a whole cache.
+ * Counting walks the cache with SCAN, so it costs one pass over the keyspace of that cache.
+ */
+@Component
+@Endpoint(id = "rediscaches")
+@RequiredArgsConstructor
+public class RedisCacheEndpoint {
+    private static final int SCAN_COUNT = 1000;
+    private static final int DEFAULT_KEY_LIMIT = 100;
+    private static final RedisScript<Long> MEMORY_USAGE = RedisScript.of(
+            "local total = 0 "
+                    + "for _, key in ipairs(KEYS) do total = total + (redis.call('MEMORY', 'USAGE', key) or 0) end "
+                    + "return total",
+            Long.class);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheProperties cacheProperties;
+
+    @ReadOperation
+    public Map<String, CacheSummary> caches() {
+        Map<String, CacheSummary> summaries = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            RedisCache cache = redisCache(name);
+            if (cache != null) {
+                summaries.put(name, summarize(cache));
+            }
+        }
+        return summaries;
+    }
+
+    @ReadOperation
+    public CacheKeys keys(@Selector String cacheName, @Nullable Integer limit) {
+        RedisCache cache = requireCache(cacheName);
+        String prefix = prefix(cache);
+        int max = limit != null && limit > 0 ? limit : DEFAULT_KEY_LIMIT;
+        List<KeyEntry> entries = new ArrayList<>();
+        try (Cursor<String> cursor = scan(prefix)) {
+            while (cursor.hasNext() && entries.size() < max) {
+                String key = cursor.next();
+                entries.add(new KeyEntry(key.substring(prefix.length()), redisTemplate.getExpire(key)));
+            }
+        }
+        return new CacheKeys(cacheName, entries);
+    }
+
+    @DeleteOperation
+    public EvictionResult evict(@Selector String cacheName, @Nullable String key) {
+        RedisCache cache = requireCache(cacheName);
+        if (key == null) {
+            long keys = countKeys(prefix(cache), null);
+            cache.clear();
+            return new EvictionResult(cacheName, null, keys);
+        }
+        boolean deleted = Boolean.TRUE.equals(redisTemplate.delete(prefix(cache) + key));
+        return new EvictionResult(cacheName, key, deleted ? 1 : 0);
+    }
+
+    private CacheSummary summarize(RedisCache cache) {
+        List<String> sample = new ArrayList<>();
+        long keys = countKeys(prefix(cache), sample);
+        Long sampledBytes = sample.isEmpty() ? 0L : redisTemplate.execute(MEMORY_USAGE, sample);
+        long estimatedBytes = sample.isEmpty() || sampledBytes == null ? 0 : sampledBytes * keys / sample.size();
+        CacheStatistics statistics = cache.getStatistics();
+        return new CacheSummary(keys, estimatedBytes, cacheProperties.getTtl()
+                .getOrDefault(cache.getName(), cacheProperties.getDefaultTtl()).toString(),
+                statistics.getHits(), statistics.getMisses(), statistics.getPuts(), statistics.getDeletes());
+    }
+
+    private long countKeys(String prefix, @Nullable List<String> sample) {
+        long count = 0;
+        try (Cursor<String> cursor = scan(prefix)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (sample != null && sample.size() < cacheProperties.getMemorySampleSize()) {
+                    sample.add(key);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Cursor<String> scan(String prefix) {
+        return redisTemplate.scan(ScanOptions.scanOptions().match(prefix + "*").count(SCAN_COUNT).build());
+    }
+
+    private RedisCache requireCache(String cacheName) {
+        RedisCache cache = cacheManager.getCacheNames().contains(cacheName) ? redisCache(cacheName) : null;
+        if (cache == null) {
+            throw new InvalidEndpointRequestException("Unknown cache: " + cacheName, "Unknown cache");
+        }
+        return cache;
+    }
+
+    @Nullable
+    private RedisCache redisCache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache instanceof RedisCache redisCache ? redisCache : null;
+    }
+
+    private static String prefix(RedisCache cache) {
+        return cache.getCacheConfiguration().getKeyPrefixFor(cache.getName());
+    }
+
+    public record CacheSummary(long keys, long estimatedMemoryBytes, String ttl,
+                               long hits, long misses, long puts, long deletes) {
+    }
+
+    public record CacheKeys(String cache, List<KeyEntry> keys) {
+    }
+
+    public record KeyEntry(String key, Long ttlSeconds) {
+    }
+
+    public record EvictionResult(String cache, @Nullable String key, long evicted) {
+    }
+}
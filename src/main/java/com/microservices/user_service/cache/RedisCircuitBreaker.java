@@ -0,0 +1,183 @@
+package com.microservices.user_service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for cache traffic to Redis. After {@code failureThreshold} consecutive failed commands it opens,
+ * and callers go straight to their fallback instead of waiting for the command timeout.
+ * <p>
+ * Evictions that cannot be sent are queued and open the breaker at once, since Redis may still hold the stale
+ * entries. When {@code openDuration} has passed, the next caller recovers: it pings Redis and replays the queue,
+ * or clears all caches if more than {@code maxPendingEvictions} were missed. The breaker closes only after that
+ * succeeds, so Redis is not read before the missed evictions are applied.
+ */
+@Slf4j
+public class RedisCircuitBreaker {
+    public enum State { CLOSED, OPEN, RECOVERING }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int maxPendingEvictions;
+    private final Runnable healthCheck;
+    private final Runnable clearAll;
+    private final Runnable onClosed;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final Deque<Runnable> pendingEvictions = new ArrayDeque<>();
+    private boolean pendingOverflowed;
+    private volatile long openUntil;
+
+    /**
+     * @param healthCheck throws {@link DataAccessException} while Redis is unavailable
+     * @param clearAll    clears every cache in Redis, used instead of an overflowed eviction queue
+     * @param onClosed    runs after recovery, e.g. to drop the local fallback entries
+     */
+    public RedisCircuitBreaker(int failureThreshold, Duration openDuration, int maxPendingEvictions,
+                               Runnable healthCheck, Runnable clearAll, Runnable onClosed) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.maxPendingEvictions = maxPendingEvictions;
+        this.healthCheck = healthCheck;
+        this.clearAll = clearAll;
+        this.onClosed = onClosed;
+    }
+
+    /**
+     * Runs {@code command} against Redis, or {@code fallback} if the breaker is open or the command fails.
+     */
+    public <T> T call(Supplier<T> command, Supplier<T> fallback) {
+        if (!allowRequest()) {
+            return fallback.get();
+        }
+        T result;
+        try {
+            result = command.get();
+        } catch (DataAccessException e) {
+            onFailure(e);
+            return fallback.get();
+        }
+        consecutiveFailures.set(0);
+        return result;
+    }
+
+    public void run(Runnable command, Runnable fallback) {
+        call(() -> {
+            command.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs an eviction against Redis, or queues it for replay on recovery. Recovery closes the breaker under the
+     * queue lock after its last replay, so an eviction is queued only while the breaker is still not closed; one
+     * that reaches the queue after recovery runs against Redis instead.
+     */
+    public void evict(Runnable eviction) {
+        while (true) {
+            if (allowRequest()) {
+                try {
+                    eviction.run();
+                    consecutiveFailures.set(0);
+                    return;
+                } catch (DataAccessException e) {
+                    log.warn("Redis eviction failed, switching cache to degraded mode: {}", e.getMessage());
+                    open();
+                }
+            }
+            synchronized (pendingEvictions) {
+                if (state.get() == State.CLOSED) {
+                    continue;
+                }
+                if (pendingOverflowed) {
+                    return;
+                }
+                if (pendingEvictions.size() >= maxPendingEvictions) {
+                    pendingEvictions.clear();
+                    pendingOverflowed = true;
+                    return;
+                }
+                pendingEvictions.add(eviction);
+                return;
+            }
+        }
+    }
+
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.RECOVERING || System.nanoTime() - openUntil < 0
+                || !state.compareAndSet(State.OPEN, State.RECOVERING)) {
+            return false;
+        }
+        try {
+            healthCheck.run();
+            synchronized (pendingEvictions) {
+                replayPendingEvictions();
+                onClosed.run();
+                consecutiveFailures.set(0);
+                state.set(State.CLOSED);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Redis still unavailable, cache stays in degraded mode: {}", e.getMessage());
+            open();
+            return false;
+        }
+        log.info("Redis recovered, cache back to normal mode");
+        return true;
+    }
+
+    public void onFailure(DataAccessException e) {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED) {
+            log.warn("Redis failing ({}), switching cache to degraded mode for {} ms",
+                    e.getMessage(), openNanos / 1_000_000);
+            open();
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getPendingEvictions() {
+        synchronized (pendingEvictions) {
+            return pendingEvictions.size();
+        }
+    }
+
+    private void replayPendingEvictions() {
+        synchronized (pendingEvictions) {
+            if (pendingOverflowed) {
+                clearAll.run();
+                pendingEvictions.clear();
+                pendingOverflowed = false;
+                return;
+            }
+            while (!pendingEvictions.isEmpty()) {
+                pendingEvictions.peek().run();
+                pendingEvictions.poll();
+            }
+        }
+    }
+
+    private void open() {
+        openUntil = System.nanoTime() + openNanos;
+        state.set(State.OPEN);
+    }
+}
@@ -0,0 +1,93 @@
+package com.microservices.user_service.cache;
+
+import com.microservices.user_service.profiling.CacheOperationEvent;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A {@link RedisCache} behind {@link RedisCircuitBreaker}. Reads and writes go to the local fallback cache
+ * while the breaker is open or a Redis command fails; evictions always apply locally and are queued for Redis.
+ * Every operation emits a {@link CacheOperationEvent} tagged with the cache name.
+ */
+public class ResilientCache implements Cache {
+    private final RedisCache redis;
+    private final Cache local;
+    private final RedisCircuitBreaker breaker;
+
+    public ResilientCache(RedisCache redis, Cache local, RedisCircuitBreaker breaker) {
+        this.redis = redis;
+        this.local = local;
+        this.breaker = breaker;
+    }
+
+    public RedisCache getRedisCache() {
+        return redis;
+    }
+
+    @Override
+    public String getName() {
+        return redis.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redis.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheOperationEvent event = CacheOperationEvent.begin(getName(), "get", 1);
+        ValueWrapper value = breaker.call(() -> redis.get(key), () -> local.get(key));
+        event.finish(value != null ? 1 : 0);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        CacheOperationEvent event = CacheOperationEvent.begin(getName(), "get", 1);
+        T value = breaker.call(() -> redis.get(key, type), () -> local.get(key, type));
+        event.finish(value != null ? 1 : 0);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheOperationEvent event = CacheOperationEvent.begin(getName(), "get", 1);
+        T value = breaker.call(() -> redis.get(key, valueLoader), () -> local.get(key, valueLoader));
+        event.finish();
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CacheOperationEvent event = CacheOperationEvent.begin(getName(), "put", 1);
+        breaker.run(() -> redis.put(key, value), () -> local.put(key, value));
+        event.finish();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        CacheOperationEvent event = CacheOperationEvent.begin(getName(), "put", 1);
+        ValueWrapper existing = breaker.call(() -> redis.putIfAbsent(key, value), () -> local.putIfAbsent(key, value));
+        event.finish(existing != null ? 1 : 0);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        CacheOperationEvent event = CacheOperationEvent.begin(getName(), "evict", 1);
+        local.evict(key);
+        breaker.evict(() -> redis.evict(key));
+        event.finish();
+    }
+
+    @Override
+    public void clear() {
+        CacheOperationEvent event = CacheOperationEvent.begin(getName(), "clear", 0);
+        local.clear();
+        breaker.evict(redis::clear);
+        event.finish();
+    }
+}
@@ -0,0 +1,45 @@
+package com.microservices.user_service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of a {@link RedisCacheManager} in a {@link ResilientCache}.
+ */
+public class ResilientCacheManager implements CacheManager {
+    private final RedisCacheManager redisCacheManager;
+    private final LocalFallbackCaches localCaches;
+    private final RedisCircuitBreaker breaker;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public ResilientCacheManager(RedisCacheManager redisCacheManager, LocalFallbackCaches localCaches,
+                                 RedisCircuitBreaker breaker) {
+        this.redisCacheManager = redisCacheManager;
+        this.localCaches = localCaches;
+        this.breaker = breaker;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (!(redisCache instanceof RedisCache redis)) {
+            return redisCache;
+        }
+        return caches.computeIfAbsent(name, key -> new ResilientCache(redis, localCaches.get(key), breaker));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+}
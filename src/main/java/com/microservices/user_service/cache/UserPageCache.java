@@ -0,0 +1,331 @@
+package com.microservices.user_service.cache;
+
+import com.microservices.user_service.dto.SearchCursor;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.model.User;
+import com.microservices.user_service.profiling.CacheOperationEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * User list caching as id lists: {@code userPages::<page key>} holds the ordered ids of a page,
+ * the users themselves are read from and written to the per-id {@code users} entries with one MGET and
+ * one pipelined write. Entry layout and serialization match what {@code @Cacheable} produces, so bulk
+ * eviction of per-user entries lives here as well.
+ * <p>
+ * {@code users::<id>} is the only cached copy of a user. Email lookups go through
+ * {@code userEmails::<normalized email>}, which holds just the id, and a user's keys are always
+ * dropped together in one DEL.
+ * <p>
+ * Every Redis call goes through {@link RedisCircuitBreaker}. While Redis is unavailable, reads and writes use the
+ * same {@link LocalFallbackCaches} as the {@code @Cacheable} methods, and the DELs are queued for replay.
+ * Each public operation emits one {@link CacheOperationEvent}; a page write is tagged {@code userPages} and also
+ * counts the users written with it.
+ * <p>
+ * Search result pages are id lists as well, under {@code userSearches::<search key>}. They are not evicted on
+ * writes and rely on a short TTL instead; deleted users drop out when the ids are resolved.
+ */
+@Component
+public class UserPageCache {
+    public static final String USERS_CACHE = "users";
+    public static final String USER_PAGES_CACHE = "userPages";
+    public static final String USERS_WITH_CARDS_CACHE = "usersWithCards";
+    public static final String USER_EMAILS_CACHE = "userEmails";
+    public static final String USER_SEARCHES_CACHE = "userSearches";
+    public static final Set<String> CACHE_NAMES = Set.of(USERS_CACHE, USER_PAGES_CACHE, USERS_WITH_CARDS_CACHE,
+            USER_EMAILS_CACHE, USER_SEARCHES_CACHE);
+    /**
+     * Returned by {@link #getUserId} for an email cached as not found; user ids start at 1.
+     */
+    public static final long NO_USER = 0L;
+    private static final int EVICT_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheTtlPolicy cacheTtlPolicy;
+    private final RedisCircuitBreaker breaker;
+    private final LocalFallbackCaches localCaches;
+    private final String usersPrefix;
+    private final String userPagesPrefix;
+    private final String usersWithCardsPrefix;
+    private final String userEmailsPrefix;
+    private final String userSearchesPrefix;
+
+    public UserPageCache(RedisTemplate<String, Object> cacheRedisTemplate,
+                         CacheTtlPolicy cacheTtlPolicy,
+                         RedisCacheConfiguration redisCacheConfiguration,
+                         RedisCircuitBreaker breaker,
+                         LocalFallbackCaches localCaches) {
+        this.redisTemplate = cacheRedisTemplate;
+        this.cacheTtlPolicy = cacheTtlPolicy;
+        this.breaker = breaker;
+        this.localCaches = localCaches;
+        this.usersPrefix = redisCacheConfiguration.getKeyPrefixFor(USERS_CACHE);
+        this.userPagesPrefix = redisCacheConfiguration.getKeyPrefixFor(USER_PAGES_CACHE);
+        this.usersWithCardsPrefix = redisCacheConfiguration.getKeyPrefixFor(USERS_WITH_CARDS_CACHE);
+        this.userEmailsPrefix = redisCacheConfiguration.getKeyPrefixFor(USER_EMAILS_CACHE);
+        this.userSearchesPrefix = redisCacheConfiguration.getKeyPrefixFor(USER_SEARCHES_CACHE);
+    }
+
+    public static String pageKey(Pageable pageable) {
+        String sort = pageable.getSort().isUnsorted()
+                ? "unsorted"
+                : pageable.getSort().stream()
+                .map(order -> order.getProperty() + ":" + order.getDirection())
+                .collect(Collectors.joining(","));
+        return "page_" + pageable.getPageNumber() + "_" + pageable.getPageSize() + "_" + sort;
+    }
+
+    /**
+     * Key of one search page; {@code term} is the normalized query.
+     */
+    public static String searchKey(String term, SearchCursor after, int size) {
+        return size + "_" + after + "_" + term;
+    }
+
+    public CachedPageIds getIds(Pageable pageable) {
+        String pageKey = pageKey(pageable);
+        CacheOperationEvent event = CacheOperationEvent.begin(USER_PAGES_CACHE, "get", 1);
+        Object value = breaker.call(() -> redisTemplate.opsForValue().get(userPagesPrefix + pageKey),
+                () -> localCaches.get(USER_PAGES_CACHE).get(pageKey, Object.class));
+        CachedPageIds cached = value instanceof CachedPageIds ids ? ids : null;
+        event.finish(cached != null ? 1 : 0);
+        return cached;
+    }
+
+    /**
+     * Returns the cached users for the given ids. Ids without an entry, or with a cached not-found marker,
+     * are absent from the result.
+     */
+    public Map<Long, UserDTO> getUsers(List<Long> ids) {
+        Map<Long, UserDTO> users = new HashMap<>();
+        if (ids.isEmpty()) {
+            return users;
+        }
+        CacheOperationEvent event = CacheOperationEvent.begin(USERS_CACHE, "get", ids.size());
+        List<Object> values = breaker.call(
+                () -> redisTemplate.opsForValue().multiGet(ids.stream().map(id -> usersPrefix + id).toList()),
+                () -> {
+                    Cache local = localCaches.get(USERS_CACHE);
+                    return ids.stream().map(id -> local.get(id, Object.class)).toList();
+                });
+        for (int i = 0; i < ids.size(); i++) {
+            if (values != null && values.get(i) instanceof UserDTO user) {
+                users.put(ids.get(i), user);
+            }
+        }
+        event.finish(users.size());
+        return users;
+    }
+
+    public void putPage(Pageable pageable, Slice<UserDTO> page) {
+        CachedPageIds ids = new CachedPageIds(page.getContent().stream().map(UserDTO::getId).toList(),
+                page.hasNext());
+        write(pageKey(pageable), ids, page.getContent());
+    }
+
+    public void putUsers(Collection<UserDTO> users) {
+        if (!users.isEmpty()) {
+            write(null, null, users);
+        }
+    }
+
+    public CachedSearchPage getSearch(String searchKey) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USER_SEARCHES_CACHE, "get", 1);
+        Object value = breaker.call(() -> redisTemplate.opsForValue().get(userSearchesPrefix + searchKey),
+                () -> localCaches.get(USER_SEARCHES_CACHE).get(searchKey, Object.class));
+        CachedSearchPage cached = value instanceof CachedSearchPage page ? page : null;
+        event.finish(cached != null ? 1 : 0);
+        return cached;
+    }
+
+    public void putSearch(String searchKey, CachedSearchPage page) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USER_SEARCHES_CACHE, "put", 1);
+        breaker.run(() -> redisTemplate.opsForValue().set(userSearchesPrefix + searchKey, page,
+                        cacheTtlPolicy.timeToLive(USER_SEARCHES_CACHE, page)),
+                () -> localCaches.get(USER_SEARCHES_CACHE).put(searchKey, page));
+        event.finish();
+    }
+
+    /**
+     * Id cached for a normalized email, {@link #NO_USER} if the email is cached as unknown, or null on a miss.
+     */
+    public Long getUserId(String normalizedEmail) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USER_EMAILS_CACHE, "get", 1);
+        Object value = breaker.call(() -> redisTemplate.opsForValue().get(userEmailsPrefix + normalizedEmail),
+                () -> {
+                    Cache.ValueWrapper cached = localCaches.get(USER_EMAILS_CACHE).get(normalizedEmail);
+                    return cached == null ? null : cached.get() == null ? NullValue.INSTANCE : cached.get();
+                });
+        event.finish(value != null ? 1 : 0);
+        if (value instanceof NullValue) {
+            return NO_USER;
+        }
+        return value instanceof Long id ? id : null;
+    }
+
+    /**
+     * Caches the result of an email lookup: the email index entry and, if found, the user's canonical entry.
+     */
+    public void putEmail(String normalizedEmail, UserDTO user) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USER_EMAILS_CACHE, "put", user == null ? 1 : 2);
+        breaker.run(() -> writeEmail(normalizedEmail, user), () -> {
+            localCaches.get(USER_EMAILS_CACHE).put(normalizedEmail, user == null ? null : user.getId());
+            if (user != null) {
+                localCaches.get(USERS_CACHE).put(user.getId(), user);
+            }
+        });
+        event.finish();
+    }
+
+    private void writeEmail(String normalizedEmail, UserDTO user) {
+        redisTemplate.executePipelined(new SessionCallback<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Void execute(RedisOperations<K, V> operations) {
+                ValueOperations<String, Object> values = ((RedisOperations<String, Object>) operations).opsForValue();
+                if (user == null) {
+                    values.set(userEmailsPrefix + normalizedEmail, NullValue.INSTANCE,
+                            cacheTtlPolicy.timeToLive(USER_EMAILS_CACHE, null));
+                    return null;
+                }
+                values.set(userEmailsPrefix + normalizedEmail, user.getId(),
+                        cacheTtlPolicy.timeToLive(USER_EMAILS_CACHE, user.getId()));
+                values.set(usersPrefix + user.getId(), user, cacheTtlPolicy.timeToLive(USERS_CACHE, user));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Drops every key of one user in a single DEL: the {@code users} and {@code usersWithCards} entries and the
+     * index entries of the given emails, e.g. the old and the new one after an email change.
+     */
+    public void evictUser(Long id, String... emails) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USERS_CACHE, "evict", 2 + emails.length);
+        List<String> keys = new ArrayList<>(userKeys(id));
+        evictLocal(id);
+        for (String email : emails) {
+            if (email != null) {
+                String normalized = User.normalizeEmail(email);
+                keys.add(userEmailsPrefix + normalized);
+                localCaches.get(USER_EMAILS_CACHE).evict(normalized);
+            }
+        }
+        breaker.evict(() -> redisTemplate.delete(keys));
+        event.finish();
+    }
+
+    /**
+     * {@link #evictUser} for many users, {@code emails} in the same order as {@code ids}. The keys go out as
+     * multi-key DELs in one pipeline, and a user's keys are never split over two DELs.
+     */
+    public void evictUsers(List<Long> ids, List<String> emails) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USERS_CACHE, "evict", ids.size() * 3);
+        List<String> keys = new ArrayList<>(ids.size() * 3);
+        for (int i = 0; i < ids.size(); i++) {
+            String normalized = User.normalizeEmail(emails.get(i));
+            keys.addAll(userKeys(ids.get(i)));
+            keys.add(userEmailsPrefix + normalized);
+            evictLocal(ids.get(i));
+            localCaches.get(USER_EMAILS_CACHE).evict(normalized);
+        }
+        delete(keys, EVICT_BATCH_SIZE - EVICT_BATCH_SIZE % 3);
+        event.finish();
+    }
+
+    /**
+     * Evicts the {@code users} and {@code usersWithCards} entries of users whose emails did not change.
+     */
+    public void evictUsers(Collection<Long> ids) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USERS_CACHE, "evict", ids.size() * 2);
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        for (Long id : ids) {
+            keys.addAll(userKeys(id));
+            evictLocal(id);
+        }
+        delete(keys, EVICT_BATCH_SIZE - EVICT_BATCH_SIZE % 2);
+        event.finish();
+    }
+
+    private List<String> userKeys(Long id) {
+        return List.of(usersPrefix + id, usersWithCardsPrefix + id);
+    }
+
+    private void evictLocal(Long id) {
+        localCaches.get(USERS_CACHE).evict(id);
+        localCaches.get(USERS_WITH_CARDS_CACHE).evict(id);
+    }
+
+    /**
+     * Drops only the {@code usersWithCards} entries, for changes to cards that leave the users themselves intact.
+     */
+    public void evictUsersWithCards(Collection<Long> userIds) {
+        CacheOperationEvent event = CacheOperationEvent.begin(USERS_WITH_CARDS_CACHE, "evict", userIds.size());
+        userIds.forEach(localCaches.get(USERS_WITH_CARDS_CACHE)::evict);
+        delete(userIds.stream().distinct().map(id -> usersWithCardsPrefix + id).toList(), EVICT_BATCH_SIZE);
+        event.finish();
+    }
+
+    private void delete(List<String> keys, int batchSize) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        breaker.evict(() -> redisTemplate.executePipelined(new SessionCallback<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Void execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (int from = 0; from < keys.size(); from += batchSize) {
+                    ops.delete(keys.subList(from, Math.min(from + batchSize, keys.size())));
+                }
+                return null;
+            }
+        }));
+    }
+
+    private void write(String pageKey, CachedPageIds ids, Collection<UserDTO> users) {
+        CacheOperationEvent event = CacheOperationEvent.begin(pageKey != null ? USER_PAGES_CACHE : USERS_CACHE, "put",
+                users.size() + (pageKey != null ? 1 : 0));
+        breaker.run(() -> writePipelined(pageKey, ids, users), () -> {
+            if (pageKey != null) {
+                localCaches.get(USER_PAGES_CACHE).put(pageKey, ids);
+            }
+            Cache local = localCaches.get(USERS_CACHE);
+            users.forEach(user -> local.put(user.getId(), user));
+        });
+        event.finish();
+    }
+
+    private void writePipelined(String pageKey, CachedPageIds ids, Collection<UserDTO> users) {
+        redisTemplate.executePipelined(new SessionCallback<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Void execute(RedisOperations<K, V> operations) {
+                ValueOperations<String, Object> values = ((RedisOperations<String, Object>) operations).opsForValue();
+                if (pageKey != null) {
+                    values.set(userPagesPrefix + pageKey, ids, cacheTtlPolicy.timeToLive(USER_PAGES_CACHE, ids));
+                }
+                for (UserDTO user : users) {
+                    values.set(usersPrefix + user.getId(), user, cacheTtlPolicy.timeToLive(USERS_CACHE, user));
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.cache.CacheProperties;
+import com.microservices.user_service.cache.CacheTtlPolicy;
+import com.microservices.user_service.cache.UserPageCache;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis cache defaults: JDK-serialized values under {@code <cache>::<key>}, null values allowed so
+ * not-found lookups are cached too, and TTLs from {@link CacheTtlPolicy}. Caches listed under
+ * {@code cache.ttl} get their own TTL, everything else falls back to {@code cache.default-ttl}.
+ * Clearing a cache walks its keys with SCAN instead of the default KEYS, and hit/miss statistics are
+ * collected for the cache metrics and the {@code rediscaches} endpoint. The caches {@link UserPageCache} writes
+ * directly are registered up front, so the manager lists them even before anything reads them through it.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheTtlPolicy cacheTtlPolicy(CacheProperties cacheProperties) {
+        return new CacheTtlPolicy(cacheProperties);
+    }
+
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(CacheTtlPolicy cacheTtlPolicy) {
+        return RedisCacheConfiguration.defaultCacheConfig(getClass().getClassLoader())
+                .entryTtl(cacheTtlPolicy.ttlFunction(null));
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> cacheRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.java(getClass().getClassLoader()));
+        return template;
+    }
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer redisCacheManagerCustomizer(CacheProperties cacheProperties,
+                                                                          RedisCacheConfiguration redisCacheConfiguration,
+                                                                          CacheTtlPolicy cacheTtlPolicy,
+                                                                          RedisConnectionFactory connectionFactory) {
+        return builder -> {
+            builder.cacheWriter(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory,
+                            BatchStrategies.scan(cacheProperties.getClearBatchSize())))
+                    .initialCacheNames(UserPageCache.CACHE_NAMES)
+                    .enableStatistics();
+            cacheProperties.getTtl().keySet().forEach(cacheName ->
+                    builder.withCacheConfiguration(cacheName,
+                            redisCacheConfiguration.entryTtl(cacheTtlPolicy.ttlFunction(cacheName))));
+        };
+    }
+}
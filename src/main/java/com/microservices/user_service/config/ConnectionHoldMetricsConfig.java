@@ -0,0 +1,38 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.profiling.ConnectionHoldMetricsTrackerFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Installs {@link ConnectionHoldMetricsTrackerFactory} on the Hikari pools before they start. The shard pools are
+ * not beans and get it in {@link ShardingConfig}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConnectionHoldMetricsConfig {
+
+    @Bean
+    public static ConnectionHoldMetricsTrackerFactory connectionHoldMetricsTrackerFactory(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionHoldMetricsTrackerFactory(meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionHoldMetricsPostProcessor(
+            ObjectProvider<ConnectionHoldMetricsTrackerFactory> trackerFactory) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && hikari.getMetricsTrackerFactory() == null
+                        && hikari.getMetricRegistry() == null) {
+                    hikari.setMetricsTrackerFactory(trackerFactory.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
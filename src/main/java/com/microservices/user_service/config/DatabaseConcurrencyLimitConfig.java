@@ -0,0 +1,41 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.limiter.AdaptiveConcurrencyLimiter;
+import com.microservices.user_service.limiter.DatabaseConcurrencyLimitAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "db-limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseConcurrencyLimitConfig {
+
+    @Value("${db-limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${db-limiter.min-limit:2}")
+    private int minLimit;
+
+    @Value("${db-limiter.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${db-limiter.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${db-limiter.probe-interval:1000}")
+    private int probeInterval;
+
+    @Value("${db-limiter.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Bean
+    public DatabaseConcurrencyLimitAspect databaseConcurrencyLimitAspect(MeterRegistry meterRegistry) {
+        return new DatabaseConcurrencyLimitAspect(newLimiter(), newLimiter(), retryAfterSeconds, meterRegistry);
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter() {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, smoothing, probeInterval);
+    }
+}
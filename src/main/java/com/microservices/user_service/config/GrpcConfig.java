@@ -0,0 +1,31 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.grpc.UserLookupGrpcService;
+import com.microservices.user_service.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Internal gRPC API for service-to-service lookups, served by Netty on its own port next to the servlet stack.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "grpc", name = "enabled", havingValue = "true")
+public class GrpcConfig {
+
+    @Bean
+    public UserLookupGrpcService userLookupGrpcService(UserService userService) {
+        return new UserLookupGrpcService(userService);
+    }
+
+    @Bean
+    public GrpcServer grpcServer(UserLookupGrpcService userLookupGrpcService,
+                                 @Value("${grpc.port:9090}") int port,
+                                 @Value("${grpc.shutdown-grace-period:10s}") Duration shutdownGracePeriod) {
+        return new GrpcServer(List.of(userLookupGrpcService), port, shutdownGracePeriod);
+    }
+}
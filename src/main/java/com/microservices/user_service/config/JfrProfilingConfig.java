@@ -0,0 +1,25 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.profiling.JfrEventAspect;
+import com.microservices.user_service.profiling.JfrProperties;
+import com.microservices.user_service.profiling.JfrRecordingEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+@ConditionalOnProperty(prefix = "profiling.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JfrProfilingConfig {
+
+    @Bean
+    public JfrEventAspect jfrEventAspect() {
+        return new JfrEventAspect();
+    }
+
+    @Bean
+    public JfrRecordingEndpoint jfrRecordingEndpoint(JfrProperties jfrProperties) {
+        return new JfrRecordingEndpoint(jfrProperties);
+    }
+}
@@ -1,26 +1,65 @@
 package com.microservices.user_service.config;
 
+import com.microservices.user_service.migration.CardExpiresOnBackfill;
+import com.microservices.user_service.migration.CardInfoPartitionCopy;
+import com.microservices.user_service.migration.CardNumberHashBackfill;
+import com.microservices.user_service.migration.UserCardSummaryBackfill;
 import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.annotation.Profile;
 
 import javax.sql.DataSource;
+import java.util.Map;
 
 @Configuration
 @Profile("docker")
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@ImportRuntimeHints(LiquibaseConfig.ChangeLogHints.class)
 public class LiquibaseConfig {
 
     @Value("${spring.liquibase.change-log}")
     private String changeLogPath;
 
+    @Value("${spring.liquibase.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.liquibase.contexts:docker}")
+    private String contexts;
+
+    @Value("${card.fingerprint.secret}")
+    private String cardFingerprintSecret;
+
     @Bean
     public SpringLiquibase liquibase(DataSource dataSource) {
         SpringLiquibase liquibase = new SpringLiquibase();
         liquibase.setDataSource(dataSource);
         liquibase.setChangeLog(changeLogPath);
-        liquibase.setContexts("docker");
+        liquibase.setContexts(contexts);
+        liquibase.setShouldRun(enabled);
+        liquibase.setChangeLogParameters(Map.of("card.fingerprint.secret", cardFingerprintSecret));
         return liquibase;
     }
+
+    static class ChangeLogHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("db/changelog/*");
+            hints.reflection().registerType(CardNumberHashBackfill.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(CardExpiresOnBackfill.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(CardInfoPartitionCopy.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(UserCardSummaryBackfill.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.microservices.user_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user_service.cache.CacheTtlPolicy;
+import com.microservices.user_service.controller.ReactiveReadHandler;
+import com.microservices.user_service.service.ReactiveUserService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * Non-blocking read API served by WebFlux on its own Netty port, next to the servlet stack.
+ * Uses R2DBC for Postgres and reactive Lettuce for the shared Redis cache. The R2DBC pool is kept
+ * out of the context on purpose: a {@code ConnectionFactory} bean would switch off the JDBC DataSource
+ * auto-configuration that JPA relies on.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "reactive-api", name = "enabled", havingValue = "true")
+public class ReactiveApiConfig {
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${reactive-api.r2dbc.url}") String url,
+                                                 @Value("${reactive-api.r2dbc.username}") String username,
+                                                 @Value("${reactive-api.r2dbc.password}") String password,
+                                                 @Value("${reactive-api.r2dbc.pool-max-size:10}") int poolMaxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(1)
+                .maxSize(poolMaxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void closeConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    @Bean
+    public ReactiveUserService reactiveUserService(DatabaseClient reactiveDatabaseClient,
+                                                   ReactiveRedisConnectionFactory redisConnectionFactory,
+                                                   CacheTtlPolicy cacheTtlPolicy) {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(RedisSerializer.java(getClass().getClassLoader()))
+                .key(RedisSerializer.string())
+                .hashKey(RedisSerializer.string())
+                .build();
+        return new ReactiveUserService(reactiveDatabaseClient,
+                new ReactiveRedisTemplate<>(redisConnectionFactory, context), cacheTtlPolicy);
+    }
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ReactiveUserService reactiveUserService, ObjectMapper objectMapper,
+                                               @Value("${reactive-api.port:8082}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveApiServer(
+                RouterFunctions.toHttpHandler(new ReactiveReadHandler(reactiveUserService).routes(), strategies),
+                port);
+    }
+}
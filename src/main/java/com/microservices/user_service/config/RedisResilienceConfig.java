@@ -0,0 +1,100 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.cache.CacheProperties;
+import com.microservices.user_service.cache.LocalFallbackCaches;
+import com.microservices.user_service.cache.RedisCircuitBreaker;
+import com.microservices.user_service.cache.ResilientCacheManager;
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.directory.UserDirectoryCacheManager;
+import com.microservices.user_service.directory.UserDirectoryService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Keeps the service up when Redis is slow or down. Redis commands use the short {@code spring.data.redis.timeout},
+ * and {@link RedisCircuitBreaker} stops sending them after repeated failures: {@code @Cacheable} caches and
+ * {@link UserPageCache} then use {@link LocalFallbackCaches} and the database. Any other cache error is logged
+ * instead of failing the request.
+ * <p>
+ * The {@link RedisCacheManager} bean stays as it is; only the cache interceptor sees the wrapping manager, which
+ * also puts an enabled {@link UserDirectoryService} in front of the {@code users} cache.
+ */
+@Configuration
+public class RedisResilienceConfig implements CachingConfigurer {
+    private final ObjectProvider<RedisCacheManager> redisCacheManager;
+    private final ObjectProvider<LocalFallbackCaches> localCaches;
+    private final ObjectProvider<RedisCircuitBreaker> breaker;
+    private final ObjectProvider<UserDirectoryService> userDirectory;
+
+    public RedisResilienceConfig(ObjectProvider<RedisCacheManager> redisCacheManager,
+                                 ObjectProvider<LocalFallbackCaches> localCaches,
+                                 ObjectProvider<RedisCircuitBreaker> breaker,
+                                 ObjectProvider<UserDirectoryService> userDirectory) {
+        this.redisCacheManager = redisCacheManager;
+        this.localCaches = localCaches;
+        this.breaker = breaker;
+        this.userDirectory = userDirectory;
+    }
+
+    @Override
+    public CacheManager cacheManager() {
+        CacheManager cacheManager = new ResilientCacheManager(redisCacheManager.getObject(), localCaches.getObject(),
+                breaker.getObject());
+        UserDirectoryService directory = userDirectory.getObject();
+        return directory.isEnabled() ? new UserDirectoryCacheManager(cacheManager, directory) : cacheManager;
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
+    }
+
+    @Bean
+    public LocalFallbackCaches localFallbackCaches(CacheProperties cacheProperties) {
+        return new LocalFallbackCaches(cacheProperties.getResilience());
+    }
+
+    @Bean
+    public RedisCircuitBreaker redisCircuitBreaker(CacheProperties cacheProperties,
+                                                   RedisConnectionFactory connectionFactory,
+                                                   LocalFallbackCaches localFallbackCaches,
+                                                   MeterRegistry meterRegistry) {
+        CacheProperties.Resilience resilience = cacheProperties.getResilience();
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(resilience.getFailureThreshold(),
+                resilience.getOpenDuration(), resilience.getMaxPendingEvictions(),
+                () -> {
+                    try (RedisConnection connection = connectionFactory.getConnection()) {
+                        connection.ping();
+                    }
+                },
+                this::clearAllCaches,
+                localFallbackCaches::clear);
+        Gauge.builder("cache.redis.degraded", circuitBreaker,
+                        b -> b.getState() == RedisCircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while Redis is bypassed by the cache circuit breaker")
+                .register(meterRegistry);
+        Gauge.builder("cache.redis.pending.evictions", circuitBreaker, RedisCircuitBreaker::getPendingEvictions)
+                .description("Evictions waiting for Redis to come back")
+                .register(meterRegistry);
+        return circuitBreaker;
+    }
+
+    /**
+     * Clears every cache the {@link RedisCacheManager} knows, which includes the ones {@link UserPageCache}
+     * writes directly (see {@code CacheConfig}).
+     */
+    private void clearAllCaches() {
+        RedisCacheManager manager = redisCacheManager.getObject();
+        manager.getCacheNames().forEach(name -> manager.getCache(name).clear());
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.profiling.RequestProfilingFilter;
+import com.microservices.user_service.profiling.RequestProfilingProperties;
+import com.microservices.user_service.profiling.RequestTraceStatementInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RequestProfilingProperties.class)
+@ConditionalOnProperty(prefix = "profiling.requests", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RequestProfilingConfig {
+
+    @Bean
+    public RequestProfilingFilter requestProfilingFilter(RequestProfilingProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new RequestProfilingFilter(properties, meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer requestTraceStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new RequestTraceStatementInspector());
+    }
+}
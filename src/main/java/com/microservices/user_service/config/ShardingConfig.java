@@ -0,0 +1,117 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.profiling.ConnectionHoldMetricsTrackerFactory;
+import com.microservices.user_service.shard.CardNumberShardIndex;
+import com.microservices.user_service.shard.EmailShardIndex;
+import com.microservices.user_service.shard.ShardDataSources;
+import com.microservices.user_service.shard.ShardRouter;
+import com.microservices.user_service.shard.ShardedLiquibase;
+import com.microservices.user_service.shard.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * With {@code sharding.enabled} users and their cards are spread over {@code sharding.shards}, see
+ * {@link ShardRouter}. Otherwise the single-shard router and index are used and the regular data source and
+ * migrations stay in place.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public ShardRouter singleShardRouter() {
+        return ShardRouter.singleShard();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public EmailShardIndex singleShardEmailIndex() {
+        return EmailShardIndex.singleShard();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public CardNumberShardIndex singleShardCardNumberIndex() {
+        return CardNumberShardIndex.singleShard();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+    static class ShardedPersistenceConfig {
+
+        @Bean
+        public ShardDataSources shardDataSources(ShardingProperties sharding, DataSourceProperties defaults,
+                                                 ConnectionHoldMetricsTrackerFactory metricsTrackerFactory,
+                                                 @Value("${reactive-api.enabled:false}") boolean reactiveApi) {
+            if (reactiveApi) {
+                throw new IllegalStateException("The reactive API reads a single database and cannot run with sharding");
+            }
+            List<HikariDataSource> dataSources = new ArrayList<>();
+            List<String> schemas = new ArrayList<>();
+            for (ShardingProperties.Shard shard : sharding.getShards()) {
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName("shard-" + dataSources.size());
+                dataSource.setJdbcUrl(Objects.requireNonNullElse(shard.getUrl(), defaults.determineUrl()));
+                dataSource.setUsername(Objects.requireNonNullElse(shard.getUsername(), defaults.determineUsername()));
+                dataSource.setPassword(Objects.requireNonNullElse(shard.getPassword(), defaults.determinePassword()));
+                dataSource.setSchema(shard.getSchema());
+                dataSource.setMaximumPoolSize(sharding.getPoolSize());
+                dataSource.setMetricsTrackerFactory(metricsTrackerFactory);
+                dataSources.add(dataSource);
+                schemas.add(shard.getSchema());
+            }
+            return new ShardDataSources(dataSources, schemas);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardDataSources shards) {
+            return ShardRouter.routingDataSource(shards);
+        }
+
+        @Bean
+        public ShardRouter shardRouter(ShardDataSources shards, PlatformTransactionManager transactionManager) {
+            return new ShardRouter(shards.size(), transactionManager);
+        }
+
+        @Bean
+        public EmailShardIndex emailShardIndex(ShardDataSources shards) {
+            return new EmailShardIndex(shards);
+        }
+
+        @Bean
+        public CardNumberShardIndex cardNumberShardIndex(ShardDataSources shards) {
+            return new CardNumberShardIndex(shards);
+        }
+
+        @Bean
+        public SpringLiquibase liquibase(ShardDataSources shards,
+                                         @Value("${spring.liquibase.change-log:classpath:db/changelog/schema-changelog.yaml}") String changeLog,
+                                         @Value("${spring.liquibase.enabled:true}") boolean enabled,
+                                         @Value("${spring.liquibase.contexts:docker}") String contexts,
+                                         @Value("${card.fingerprint.secret}") String cardFingerprintSecret) {
+            ShardedLiquibase liquibase = new ShardedLiquibase(shards);
+            liquibase.setChangeLog(changeLog);
+            liquibase.setContexts(contexts);
+            liquibase.setShouldRun(enabled);
+            liquibase.setChangeLogParameters(Map.of("card.fingerprint.secret", cardFingerprintSecret));
+            return liquibase;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.cache.RedisCircuitBreaker;
+import com.microservices.user_service.directory.UserDirectoryProperties;
+import com.microservices.user_service.directory.UserDirectoryService;
+import com.microservices.user_service.shard.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * With {@code user-directory.enabled} id and email lookups are served from an off-heap {@link UserDirectoryService}
+ * first. Otherwise a disabled directory is used, which never answers.
+ */
+@Configuration
+@EnableConfigurationProperties(UserDirectoryProperties.class)
+public class UserDirectoryConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "user-directory", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public UserDirectoryService disabledUserDirectory() {
+        return UserDirectoryService.disabled();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "user-directory", name = "enabled", havingValue = "true")
+    static class EnabledUserDirectoryConfig {
+
+        @Bean
+        public UserDirectoryService userDirectory(UserDirectoryProperties properties, ShardRouter shardRouter,
+                                                  DataSource dataSource, PlatformTransactionManager transactionManager,
+                                                  StringRedisTemplate redisTemplate, RedisCircuitBreaker breaker,
+                                                  MeterRegistry meterRegistry) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(properties.getFetchSize());
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            UserDirectoryService userDirectory = new UserDirectoryService(properties, shardRouter, jdbcTemplate,
+                    readOnlyTransaction, redisTemplate, breaker);
+            Gauge.builder("user.directory.users", userDirectory, UserDirectoryService::size)
+                    .description("Users in the off-heap user directory")
+                    .register(meterRegistry);
+            return userDirectory;
+        }
+
+        @Bean
+        public RedisMessageListenerContainer userDirectoryChangesListener(RedisConnectionFactory connectionFactory,
+                                                                          UserDirectoryService userDirectory) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(userDirectory, new ChannelTopic(UserDirectoryService.CHANGES_CHANNEL));
+            return container;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.microservices.user_service.config;
+
+import com.microservices.user_service.service.UserSearchProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UserSearchProperties.class)
+public class UserSearchConfig {
+}
@@ -1,11 +1,13 @@
 package com.microservices.user_service.controller;
 
 import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.CountMode;
+import com.microservices.user_service.dto.PageDTO;
 import com.microservices.user_service.service.CardService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -30,9 +32,10 @@ public class CardController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<CardDTO>> getAllCards(Pageable pageable) {
-        Page<CardDTO> cards = cardService.getAllCards(pageable);
-        return ResponseEntity.ok(cards);
+    public ResponseEntity<PageDTO<CardDTO>> getAllCards(Pageable pageable,
+                                                        @RequestParam(defaultValue = "exact") CountMode count) {
+        Slice<CardDTO> cards = cardService.getAllCards(pageable, count);
+        return ResponseEntity.ok(PageDTO.of(cards));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,19 @@
+package com.microservices.user_service.controller;
+
+import com.microservices.user_service.dto.CountMode;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Accepts {@code count=exact|estimated|none} in any case.
+ */
+@Component
+public class CountModeConverter implements Converter<String, CountMode> {
+
+    @Override
+    public CountMode convert(String source) {
+        return CountMode.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,91 @@
+package com.microservices.user_service.controller;
+
+import com.microservices.user_service.dto.PageDTO;
+import com.microservices.user_service.exception.NotFoundException;
+import com.microservices.user_service.service.ReactiveUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * WebFlux routes mirroring the read endpoints of {@link UserController} and {@link CardController}
+ * under {@code /api/reactive}.
+ */
+@RequiredArgsConstructor
+public class ReactiveReadHandler {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private final ReactiveUserService reactiveUserService;
+
+    public RouterFunction<ServerResponse> routes() {
+        return route()
+                .GET("/api/reactive/users/email/{email}", this::getUserByEmail)
+                .GET("/api/reactive/users/{id}", this::getUserById)
+                .GET("/api/reactive/users", this::getAllUsers)
+                .GET("/api/reactive/card_info/{id}", this::getCardById)
+                .onError(NotFoundException.class, (e, request) -> error(HttpStatus.NOT_FOUND, e))
+                .onError(IllegalArgumentException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, e))
+                .build();
+    }
+
+    private Mono<ServerResponse> getUserById(ServerRequest request) {
+        return Mono.fromCallable(() -> pathId(request))
+                .flatMap(reactiveUserService::getById)
+                .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    private Mono<ServerResponse> getUserByEmail(ServerRequest request) {
+        return reactiveUserService.getByEmail(request.pathVariable("email"))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    private Mono<ServerResponse> getAllUsers(ServerRequest request) {
+        return Mono.fromCallable(() -> pageable(request))
+                .flatMap(reactiveUserService::getAllUsers)
+                .flatMap(page -> ServerResponse.ok().bodyValue(PageDTO.of(page)));
+    }
+
+    private Mono<ServerResponse> getCardById(ServerRequest request) {
+        return Mono.fromCallable(() -> pathId(request))
+                .flatMap(reactiveUserService::getCardById)
+                .flatMap(card -> ServerResponse.ok().bodyValue(card));
+    }
+
+    private static Long pathId(ServerRequest request) {
+        return Long.valueOf(request.pathVariable("id"));
+    }
+
+    private static Pageable pageable(ServerRequest request) {
+        int page = request.queryParam("page").map(Integer::parseInt).orElse(0);
+        int size = request.queryParam("size").map(Integer::parseInt).orElse(DEFAULT_PAGE_SIZE);
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String sort : request.queryParams().getOrDefault("sort", List.of())) {
+            String[] parts = sort.split(",");
+            Sort.Direction direction = parts.length > 1
+                    ? Sort.Direction.fromString(parts[1])
+                    : Sort.Direction.ASC;
+            orders.add(new Sort.Order(direction, parts[0]));
+        }
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by(orders));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, Throwable e) {
+        return ServerResponse.status(status).bodyValue(Map.of(
+                "status", status.value(),
+                "error", status.getReasonPhrase(),
+                "message", String.valueOf(e.getMessage())));
+    }
+}
@@ -0,0 +1,17 @@
+package com.microservices.user_service.controller;
+
+import com.microservices.user_service.dto.SearchCursor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the {@code cursor} of {@code GET /api/users/search}; a malformed one is a 400.
+ */
+@Component
+public class SearchCursorConverter implements Converter<String, SearchCursor> {
+
+    @Override
+    public SearchCursor convert(String source) {
+        return SearchCursor.parse(source.trim());
+    }
+}
@@ -1,11 +1,24 @@
 package com.microservices.user_service.controller;
 
+import com.microservices.user_service.dto.BulkDeleteRequest;
+import com.microservices.user_service.dto.BulkDeleteResult;
+import com.microservices.user_service.dto.CountMode;
+import com.microservices.user_service.dto.PageDTO;
+import com.microservices.user_service.dto.SearchCursor;
+import com.microservices.user_service.dto.UserCardSummaryDTO;
 import com.microservices.user_service.dto.UserDTO;
 import com.microservices.user_service.dto.UserDTOWithCards;
+import com.microservices.user_service.dto.UserSearchPageDTO;
+import com.microservices.user_service.exception.NotFoundException;
+import com.microservices.user_service.exception.UnsupportedSortException;
+import com.microservices.user_service.service.UserSearchService;
 import com.microservices.user_service.service.UserService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final UserSearchService userSearchService;
 
     @PostMapping
     public ResponseEntity<UserDTO> createUser(@Valid @RequestBody UserDTO userDTO) {
@@ -26,24 +40,51 @@ public class UserController {
 
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
-        UserDTO user = userService.getById(id);
+        UserDTO user = userService.findById(id)
+                .orElseThrow(() -> new NotFoundException("User", id));
         return  ResponseEntity.ok(user);
     }
 
     @GetMapping("/{id}/with-cards")
     public ResponseEntity<UserDTOWithCards> getUserWithCardsById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserWithCardsById(id));
+        return ResponseEntity.ok(userService.findUserWithCardsById(id)
+                .orElseThrow(() -> new NotFoundException("User", id)));
     }
 
+    @GetMapping("/{id}/card-summary")
+    public ResponseEntity<UserCardSummaryDTO> getCardSummary(@PathVariable Long id) {
+        return ResponseEntity.ok(userService.findCardSummary(id)
+                .orElseThrow(() -> new NotFoundException("User", id)));
+    }
+
+    /**
+     * Offset pages by default. With {@code after}, a keyset page of the users with a larger id, in id order and
+     * without totals; pass the id of the last user of a page to get the next one.
+     */
     @GetMapping
-    public ResponseEntity<Page<UserDTO>> getAllUsers(Pageable pageable) {
-        Page<UserDTO> users = userService.getAllUsers(pageable);
-        return  ResponseEntity.ok(users);
+    public ResponseEntity<PageDTO<UserDTO>> getAllUsers(Pageable pageable,
+                                                        @RequestParam(defaultValue = "exact") CountMode count,
+                                                        @RequestParam(required = false) @Min(0) Long after) {
+        if (after == null) {
+            return ResponseEntity.ok(PageDTO.of(userService.getAllUsers(pageable, count)));
+        }
+        if (pageable.getSort().stream().anyMatch(order -> !"id".equals(order.getProperty()) || order.isDescending())) {
+            throw new UnsupportedSortException("Keyset pages are sorted by ascending id");
+        }
+        return ResponseEntity.ok(PageDTO.of(userService.getUsersAfter(after, pageable.getPageSize())));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchPageDTO> searchUsers(@RequestParam @NotBlank @Size(min = 3, max = 100) String q,
+                                                         @RequestParam(required = false) SearchCursor cursor,
+                                                         @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return ResponseEntity.ok(userSearchService.search(q, cursor, size));
     }
 
     @GetMapping("/email/{email}")
     public ResponseEntity<UserDTO> getUserByEmail(@PathVariable String email) {
-        UserDTO user = userService.getByEmail(email);
+        UserDTO user = userService.findByEmail(email)
+                .orElseThrow(() -> new NotFoundException("User", "email", email));
         return  ResponseEntity.ok(user);
     }
 
@@ -53,6 +94,11 @@ public class UserController {
         return  ResponseEntity.ok(updated);
     }
 
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResult> bulkDeleteUsers(@Valid @RequestBody BulkDeleteRequest request) {
+        return ResponseEntity.ok(userService.bulkDelete(request.getIds()));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         userService.deleteById(id);
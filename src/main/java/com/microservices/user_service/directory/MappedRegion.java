@@ -0,0 +1,93 @@
+package com.microservices.user_service.directory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A region of a file mapped read-write with long offsets. A single mapping is limited to 2 GB, so the region is
+ * mapped in {@link #CHUNK_SIZE} chunks; callers never let a value cross a chunk boundary.
+ * <p>
+ * {@link #getLongAcquire} and {@link #setLongRelease} publish data written before the release to readers that
+ * see the released value, which lets one writer update the region under lock-free readers.
+ */
+final class MappedRegion {
+    static final int CHUNK_BITS = 30;
+    static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final MappedByteBuffer[] chunks;
+    private final long length;
+
+    MappedRegion(FileChannel channel, long offset, long length) throws IOException {
+        this.length = length;
+        this.chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset + start, Math.min(CHUNK_SIZE, length - start));
+        }
+    }
+
+    long length() {
+        return length;
+    }
+
+    /**
+     * Room left in the chunk of {@code position}.
+     */
+    static long remainingInChunk(long position) {
+        return CHUNK_SIZE - (position & CHUNK_MASK);
+    }
+
+    long getLong(long position) {
+        return chunk(position).getLong(index(position));
+    }
+
+    long getLongAcquire(long position) {
+        return (long) LONGS.getAcquire(chunk(position), index(position));
+    }
+
+    void setLongRelease(long position, long value) {
+        LONGS.setRelease(chunk(position), index(position), value);
+    }
+
+    void putLong(long position, long value) {
+        chunk(position).putLong(index(position), value);
+    }
+
+    int getInt(long position) {
+        return chunk(position).getInt(index(position));
+    }
+
+    void putInt(long position, int value) {
+        chunk(position).putInt(index(position), value);
+    }
+
+    short getShort(long position) {
+        return chunk(position).getShort(index(position));
+    }
+
+    void putShort(long position, short value) {
+        chunk(position).putShort(index(position), value);
+    }
+
+    void get(long position, byte[] destination, int length) {
+        chunk(position).get(index(position), destination, 0, length);
+    }
+
+    void put(long position, byte[] source) {
+        chunk(position).put(index(position), source);
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        return chunks[(int) (position >>> CHUNK_BITS)];
+    }
+
+    private static int index(long position) {
+        return (int) (position & CHUNK_MASK);
+    }
+}
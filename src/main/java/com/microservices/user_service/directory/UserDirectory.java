@@ -0,0 +1,568 @@
+package com.microservices.user_service.directory;
+
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * All users in one memory-mapped file, outside the Java heap. The file holds three regions:
+ * <ul>
+ *     <li>records: {@code id, birth date, card count, next card expiry, name, surname, email}, 8-byte aligned and
+ *     appended only;</li>
+ *     <li>the id index: open-addressed slots of {@code (id, record offset)};</li>
+ *     <li>the email index: open-addressed slots of {@code (64-bit hash of the normalized email, record offset)},
+ *     where a hash match is confirmed against the record.</li>
+ * </ul>
+ * Both indexes probe linearly and use offset {@code -1} for removed entries; an insert takes the first removed
+ * slot on its probe path before it takes an empty one, and removed slots at the end of a probe path are emptied. Changes append a new record and then switch the slot with a
+ * release store, so lookups need no locks and never see a half-written record. A reused id slot can briefly show
+ * its old id with the new offset, so id lookups check the id in the record. Changes are applied by a single
+ * writer; {@link #put} returns false once the reserve left by {@link Builder#build} is used up, and the directory
+ * has to be rebuilt.
+ * <p>
+ * Every call holds a reference for its duration. {@link #close} drops the directory's own reference, and the
+ * last one out closes and deletes the file; calls made after that miss. The mapping itself is released by the
+ * garbage collector once the directory is no longer referenced.
+ */
+public final class UserDirectory implements AutoCloseable {
+    private static final int SLOT_SIZE = 16;
+    private static final long REMOVED = -1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final int NULL_COUNT = -1;
+    private static final int HEADER_SIZE = 20;
+    private static final double MAX_LOAD = 0.7;
+    private static final long MIN_RESERVE_BYTES = 1 << 20;
+    private static final long PAGE_SIZE = 4096;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedRegion records;
+    private final MappedRegion ids;
+    private final MappedRegion emails;
+    private final long idMask;
+    private final long emailMask;
+    private final AtomicLong references = new AtomicLong(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private long recordsEnd;
+    private long idSlotsUsed;
+    private long emailSlotsUsed;
+    private volatile long size;
+
+    private UserDirectory(Path path, FileChannel channel, long recordsEnd, long recordsCapacity, long tableSize)
+            throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.recordsEnd = recordsEnd;
+        this.records = new MappedRegion(channel, 0, recordsCapacity);
+        this.ids = new MappedRegion(channel, recordsCapacity, tableSize * SLOT_SIZE);
+        this.emails = new MappedRegion(channel, recordsCapacity + tableSize * SLOT_SIZE, tableSize * SLOT_SIZE);
+        this.idMask = tableSize - 1;
+        this.emailMask = tableSize - 1;
+    }
+
+    /**
+     * Starts a new directory file in {@code directory}. {@code reserve} is the share of extra room, relative to
+     * the snapshot, kept for changes before a rebuild is needed.
+     */
+    public static Builder builder(Path directory, double reserve) {
+        return new Builder(directory, reserve);
+    }
+
+    public UserDTO findById(long id) {
+        if (!retain()) {
+            return null;
+        }
+        try {
+            long offset = recordOffset(id);
+            return offset < 0 ? null : read(offset);
+        } finally {
+            release();
+        }
+    }
+
+    public UserDTO findByEmail(String normalizedEmail) {
+        if (!retain()) {
+            return null;
+        }
+        try {
+            return lookupEmail(normalizedEmail);
+        } finally {
+            release();
+        }
+    }
+
+    private UserDTO lookupEmail(String normalizedEmail) {
+        long hash = emailHash(normalizedEmail);
+        for (long slot = mix(hash) & emailMask; ; slot = (slot + 1) & emailMask) {
+            long position = slot * SLOT_SIZE;
+            long key = emails.getLongAcquire(position);
+            if (key == 0) {
+                return null;
+            }
+            if (key == hash) {
+                long offset = emails.getLongAcquire(position + 8);
+                if (offset >= 0) {
+                    UserDTO user = read(offset);
+                    if (normalizedEmail.equals(User.normalizeEmail(user.getEmail()))) {
+                        return user;
+                    }
+                }
+            }
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long fileSize() {
+        return records.length() + ids.length() + emails.length();
+    }
+
+    /**
+     * Adds or replaces a user. Returns false, leaving the directory unchanged, when there is no room left or the
+     * directory is closed.
+     */
+    public synchronized boolean put(UserDTO user) {
+        if (!retain()) {
+            return false;
+        }
+        try {
+            return store(user);
+        } finally {
+            release();
+        }
+    }
+
+    private boolean store(UserDTO user) {
+        byte[] record = encode(user);
+        long position = recordsEnd;
+        if (MappedRegion.remainingInChunk(position) < record.length) {
+            position += MappedRegion.remainingInChunk(position);
+        }
+        String email = User.normalizeEmail(user.getEmail());
+        if (position + record.length > records.length()
+                || needsNewSlot(ids, idInsertSlot(user.getId())) && idSlotsUsed + 1 > (idMask + 1) * MAX_LOAD
+                || email != null && needsNewSlot(emails, emailInsertSlot(emailHash(email)))
+                && emailSlotsUsed + 1 > (emailMask + 1) * MAX_LOAD) {
+            return false;
+        }
+        records.put(position, record);
+        recordsEnd = position + record.length;
+
+        long previous = recordOffset(user.getId());
+        long sameEmailSlot = previous >= 0 && email != null
+                && email.equals(User.normalizeEmail(read(previous).getEmail())) ? emailSlot(previous) : -1;
+        if (sameEmailSlot >= 0) {
+            emails.setLongRelease(sameEmailSlot + 8, position);
+        } else {
+            if (previous >= 0) {
+                removeEmail(previous);
+            }
+            if (email != null) {
+                insertEmail(email, position);
+            }
+        }
+        if (previous < 0) {
+            size++;
+        }
+        insertId(user.getId(), position);
+        return true;
+    }
+
+    public synchronized void remove(long id) {
+        if (!retain()) {
+            return;
+        }
+        try {
+            long offset = recordOffset(id);
+            if (offset < 0) {
+                return;
+            }
+            removeEmail(offset);
+            long position = idSlot(id);
+            ids.setLongRelease(position + 8, REMOVED);
+            idSlotsUsed -= clearRemoved(ids, idMask, position);
+            size--;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Drops the directory's own reference. The file is closed and deleted once the calls still running have
+     * returned.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    boolean retain() {
+        if (closed.get()) {
+            return false;
+        }
+        for (long count = references.get(); count > 0; count = references.get()) {
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private long recordOffset(long id) {
+        long position = idSlot(id);
+        if (position < 0) {
+            return REMOVED;
+        }
+        long offset = ids.getLongAcquire(position + 8);
+        return offset >= 0 && records.getLong(offset) == id ? offset : REMOVED;
+    }
+
+    /**
+     * Position of the id's slot, or -1 if the id was never added.
+     */
+    private long idSlot(long id) {
+        for (long slot = mix(id) & idMask; ; slot = (slot + 1) & idMask) {
+            long position = slot * SLOT_SIZE;
+            long key = ids.getLongAcquire(position);
+            if (key == 0) {
+                return -1;
+            }
+            if (key == id) {
+                return position;
+            }
+        }
+    }
+
+    /**
+     * Slot the id goes to: its own slot if it has one, else the first removed slot on its probe path, else the
+     * empty slot that ends the path.
+     */
+    private long idInsertSlot(long id) {
+        long removed = -1;
+        for (long slot = mix(id) & idMask; ; slot = (slot + 1) & idMask) {
+            long position = slot * SLOT_SIZE;
+            long key = ids.getLong(position);
+            if (key == id) {
+                return position;
+            }
+            if (key == 0) {
+                return removed >= 0 ? removed : position;
+            }
+            if (removed < 0 && ids.getLong(position + 8) == REMOVED) {
+                removed = position;
+            }
+        }
+    }
+
+    private long emailInsertSlot(long hash) {
+        for (long slot = mix(hash) & emailMask; ; slot = (slot + 1) & emailMask) {
+            long position = slot * SLOT_SIZE;
+            if (emails.getLong(position) == 0 || emails.getLong(position + 8) == REMOVED) {
+                return position;
+            }
+        }
+    }
+
+    private static boolean needsNewSlot(MappedRegion index, long position) {
+        return index.getLong(position) == 0;
+    }
+
+    private void insertId(long id, long offset) {
+        if (fill(ids, idInsertSlot(id), id, offset)) {
+            idSlotsUsed++;
+        }
+    }
+
+    private void insertEmail(String normalizedEmail, long offset) {
+        long hash = emailHash(normalizedEmail);
+        if (fill(emails, emailInsertSlot(hash), hash, offset)) {
+            emailSlotsUsed++;
+        }
+    }
+
+    /**
+     * Points the slot at the record, offset first: a lookup that sees the new key also sees the new offset.
+     * Returns whether the slot was empty before.
+     */
+    private static boolean fill(MappedRegion index, long position, long key, long offset) {
+        boolean fresh = needsNewSlot(index, position);
+        index.setLongRelease(position + 8, offset);
+        if (index.getLong(position) != key) {
+            index.setLongRelease(position, key);
+        }
+        return fresh;
+    }
+
+    private void removeEmail(long offset) {
+        long position = emailSlot(offset);
+        if (position >= 0) {
+            emails.setLongRelease(position + 8, REMOVED);
+            emailSlotsUsed -= clearRemoved(emails, emailMask, position);
+        }
+    }
+
+    /**
+     * Empties the removed slot at {@code position}, and the removed slots right before it, when the slot after it
+     * is empty: no probe path goes past that point, so the slots are not needed to keep one going. Returns the
+     * number of slots emptied.
+     */
+    private static long clearRemoved(MappedRegion index, long mask, long position) {
+        if (index.getLong(next(mask, position)) != 0) {
+            return 0;
+        }
+        long cleared = 0;
+        while (index.getLong(position) != 0 && index.getLong(position + 8) == REMOVED) {
+            index.setLongRelease(position, 0);
+            cleared++;
+            position = previous(mask, position);
+        }
+        return cleared;
+    }
+
+    private static long next(long mask, long position) {
+        return ((position / SLOT_SIZE + 1) & mask) * SLOT_SIZE;
+    }
+
+    private static long previous(long mask, long position) {
+        return ((position / SLOT_SIZE - 1) & mask) * SLOT_SIZE;
+    }
+
+    /**
+     * Position of the email slot pointing at the record, or -1 if the record has no email.
+     */
+    private long emailSlot(long offset) {
+        String email = User.normalizeEmail(read(offset).getEmail());
+        if (email == null) {
+            return -1;
+        }
+        long hash = emailHash(email);
+        for (long slot = mix(hash) & emailMask; ; slot = (slot + 1) & emailMask) {
+            long position = slot * SLOT_SIZE;
+            long key = emails.getLong(position);
+            if (key == 0) {
+                return -1;
+            }
+            if (key == hash && emails.getLong(position + 8) == offset) {
+                return position;
+            }
+        }
+    }
+
+    private UserDTO read(long offset) {
+        long id = records.getLong(offset);
+        LocalDate birthDate = date(records.getInt(offset + 8));
+        int cardCount = records.getInt(offset + 12);
+        LocalDate nextCardExpiry = date(records.getInt(offset + 16));
+        long position = offset + HEADER_SIZE;
+        String name = readString(position);
+        position += 2 + Math.max(0, records.getShort(position));
+        String surname = readString(position);
+        position += 2 + Math.max(0, records.getShort(position));
+        String email = readString(position);
+        return new UserDTO(id, name, surname, birthDate, email, cardCount == NULL_COUNT ? null : cardCount,
+                nextCardExpiry);
+    }
+
+    private String readString(long position) {
+        short length = records.getShort(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        records.get(position + 2, bytes, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(UserDTO user) {
+        byte[] name = utf8(user.getName());
+        byte[] surname = utf8(user.getSurname());
+        byte[] email = utf8(user.getEmail());
+        int length = HEADER_SIZE + 6 + length(name) + length(surname) + length(email);
+        ByteBuffer buffer = ByteBuffer.allocate((length + 7) & ~7);
+        buffer.putLong(user.getId());
+        buffer.putInt(epochDay(user.getBirthDate()));
+        buffer.putInt(user.getCardCount() == null ? NULL_COUNT : user.getCardCount());
+        buffer.putInt(epochDay(user.getNextCardExpiry()));
+        putString(buffer, name);
+        putString(buffer, surname);
+        putString(buffer, email);
+        return buffer.array();
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NULL_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value too long for the user directory: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort(bytes == null ? -1 : (short) bytes.length);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * FNV-1a over the characters; 0 marks an empty slot, so it is never returned.
+     */
+    static long emailHash(String normalizedEmail) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalizedEmail.length(); i++) {
+            hash ^= normalizedEmail.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Writes the snapshot records sequentially and builds both indexes in {@link #build}. {@link #add} is
+     * thread-safe, so shards can be read in parallel.
+     */
+    public static final class Builder {
+        private final Path directory;
+        private final double reserve;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        private Path path;
+        private FileChannel channel;
+        private long position;
+        private long count;
+
+        private Builder(Path directory, double reserve) {
+            this.directory = directory;
+            this.reserve = reserve;
+        }
+
+        public synchronized Builder add(UserDTO user) {
+            byte[] record = encode(user);
+            try {
+                open();
+                long next = position + buffer.position();
+                if (MappedRegion.remainingInChunk(next) < record.length) {
+                    flush();
+                    position += MappedRegion.remainingInChunk(position);
+                }
+                if (buffer.remaining() < record.length) {
+                    flush();
+                }
+                buffer.put(record);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        public synchronized UserDirectory build() {
+            try {
+                open();
+                flush();
+                long recordsEnd = position;
+                long recordsCapacity = align(recordsEnd + Math.max(MIN_RESERVE_BYTES, (long) (recordsEnd * reserve)));
+                long tableSize = Long.highestOneBit(Math.max(1024, (long) (count * (1 + reserve) / MAX_LOAD)) * 2 - 1);
+                channel.write(ByteBuffer.allocate(1), recordsCapacity + 2 * tableSize * SLOT_SIZE - 1);
+                UserDirectory directory = new UserDirectory(path, channel, recordsEnd, recordsCapacity, tableSize);
+                directory.indexRecords();
+                return directory;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void open() throws IOException {
+            if (channel == null) {
+                Files.createDirectories(directory);
+                path = Files.createTempFile(directory, "users-", ".dir");
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        private static long align(long value) {
+            return (value + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+        }
+    }
+
+    private void indexRecords() {
+        long position = 0;
+        while (position < recordsEnd) {
+            long id = records.getLong(position);
+            if (id == 0) {
+                position += MappedRegion.remainingInChunk(position);
+                continue;
+            }
+            UserDTO user = read(position);
+            insertId(id, position);
+            if (user.getEmail() != null) {
+                insertEmail(User.normalizeEmail(user.getEmail()), position);
+            }
+            size++;
+            position += encodedLength(position);
+        }
+    }
+
+    private long encodedLength(long offset) {
+        long position = offset + HEADER_SIZE;
+        for (int i = 0; i < 3; i++) {
+            position += 2 + Math.max(0, records.getShort(position));
+        }
+        return ((position - offset) + 7) & ~7;
+    }
+}
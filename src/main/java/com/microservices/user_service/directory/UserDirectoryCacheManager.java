@@ -0,0 +1,93 @@
+package com.microservices.user_service.directory;
+
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.dto.UserDTO;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+/**
+ * Puts the {@link UserDirectoryService} in front of the {@code users} cache, so {@code @Cacheable} id lookups
+ * are answered from the directory before Redis is asked. Writes and evictions go to the cache unchanged.
+ */
+public class UserDirectoryCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final UserDirectoryService userDirectory;
+    private volatile Cache usersCache;
+
+    public UserDirectoryCacheManager(CacheManager delegate, UserDirectoryService userDirectory) {
+        this.delegate = delegate;
+        this.userDirectory = userDirectory;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!UserPageCache.USERS_CACHE.equals(name)) {
+            return delegate.getCache(name);
+        }
+        Cache cache = usersCache;
+        if (cache == null) {
+            cache = new DirectoryFirstCache(delegate.getCache(name), userDirectory);
+            usersCache = cache;
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private record DirectoryFirstCache(Cache cache, UserDirectoryService userDirectory) implements Cache {
+
+        @Override
+        public String getName() {
+            return cache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return cache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            UserDTO user = key instanceof Long id ? userDirectory.findById(id) : null;
+            return user != null ? new SimpleValueWrapper(user) : cache.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            UserDTO user = key instanceof Long id ? userDirectory.findById(id) : null;
+            return user != null && type != null && type.isInstance(user) ? type.cast(user) : cache.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return cache.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return cache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            cache.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            cache.clear();
+        }
+    }
+}
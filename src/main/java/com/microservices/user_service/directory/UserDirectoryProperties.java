@@ -0,0 +1,20 @@
+package com.microservices.user_service.directory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Off-heap user directory settings, see {@link UserDirectoryService}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user-directory")
+public class UserDirectoryProperties {
+    private boolean enabled;
+    private Path path = Path.of(System.getProperty("java.io.tmpdir"), "user-directory");
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+    private double reserve = 0.1;
+    private int fetchSize = 10_000;
+}
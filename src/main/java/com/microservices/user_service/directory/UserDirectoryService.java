@@ -0,0 +1,344 @@
+package com.microservices.user_service.directory;
+
+import com.microservices.user_service.cache.RedisCircuitBreaker;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.shard.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a {@link UserDirectory} of all users for lookups without Redis or the database.
+ * <p>
+ * The directory is built from a snapshot of every shard on start and then every {@code rebuild-interval}.
+ * In between, {@link #onUserSaved} and {@link #onUsersDeleted} apply this instance's writes right after commit
+ * and announce the ids on {@link #CHANGES_CHANNEL}; every other instance re-reads those users from the database. Changes that arrive during
+ * a rebuild are re-read into the new directory. An announcement lost while Redis is down is corrected by the
+ * next rebuild.
+ * <p>
+ * Lookups return null until the first snapshot is ready and for users the directory does not have, so callers
+ * fall back to the cache and the database.
+ */
+@Slf4j
+public class UserDirectoryService implements SmartLifecycle, MessageListener {
+    public static final String CHANGES_CHANNEL = "user-directory:changes";
+    private static final String LIVE_USERS = "SELECT id, name, surname, birth_date, email, card_count, next_card_expiry"
+            + " FROM users WHERE deleted_at IS NULL";
+
+    private final UserDirectoryProperties properties;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker breaker;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private volatile UserDirectory directory;
+    private Set<Long> changedDuringRebuild;
+    private ScheduledExecutorService executor;
+
+    public UserDirectoryService(UserDirectoryProperties properties, ShardRouter shardRouter, JdbcTemplate jdbcTemplate,
+                                TransactionTemplate readOnlyTransaction, StringRedisTemplate redisTemplate,
+                                RedisCircuitBreaker breaker) {
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.redisTemplate = redisTemplate;
+        this.breaker = breaker;
+    }
+
+    /**
+     * A directory that is never built: every lookup misses and changes are ignored.
+     */
+    public static UserDirectoryService disabled() {
+        return new UserDirectoryService(null, null, null, null, null, null);
+    }
+
+    public boolean isEnabled() {
+        return properties != null;
+    }
+
+    public UserDTO findById(long id) {
+        UserDirectory current = directory;
+        return current == null ? null : current.findById(id);
+    }
+
+    public UserDTO findByEmail(String normalizedEmail) {
+        UserDirectory current = directory;
+        return current == null || normalizedEmail == null ? null : current.findByEmail(normalizedEmail);
+    }
+
+    /**
+     * The users the directory has; missing ids are absent from the result.
+     */
+    public Map<Long, UserDTO> findAllById(Collection<Long> ids) {
+        Map<Long, UserDTO> users = new HashMap<>();
+        UserDirectory current = directory;
+        if (current != null) {
+            for (Long id : ids) {
+                UserDTO user = current.findById(id);
+                if (user != null) {
+                    users.put(id, user);
+                }
+            }
+        }
+        return users;
+    }
+
+    public long size() {
+        UserDirectory current = directory;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * Applies a user this instance has just committed and announces the change to the other instances.
+     */
+    public void onUserSaved(UserDTO user) {
+        if (isEnabled()) {
+            synchronized (this) {
+                put(user);
+            }
+            announce(List.of(user.getId()));
+        }
+    }
+
+    public void onUsersDeleted(Collection<Long> ids) {
+        if (isEnabled() && !ids.isEmpty()) {
+            synchronized (this) {
+                ids.forEach(this::remove);
+            }
+            announce(ids);
+        }
+    }
+
+    /**
+     * Re-reads users this instance has just changed in the database without a {@link UserDTO} at hand, such as a
+     * fold of their card counts, and announces the change.
+     */
+    public void onUsersChanged(Collection<Long> ids) {
+        if (isEnabled() && !ids.isEmpty()) {
+            refresh(ids);
+            announce(ids);
+        }
+    }
+
+    private void announce(Collection<Long> ids) {
+        String message = instanceId + ":" + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        breaker.run(() -> redisTemplate.convertAndSend(CHANGES_CHANNEL, message),
+                () -> log.debug("Redis unavailable, user directory changes not announced: {}", ids));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId) || separator == body.length() - 1) {
+            return;
+        }
+        List<Long> ids = Arrays.stream(body.substring(separator + 1).split(",")).map(Long::valueOf).toList();
+        executor.execute(() -> {
+            try {
+                refresh(ids);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply user directory changes for {}, the next rebuild will", ids, e);
+            }
+        });
+    }
+
+    /**
+     * Builds a new directory from a snapshot of every shard and swaps it in.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildRequested.set(false);
+            synchronized (this) {
+                changedDuringRebuild = ConcurrentHashMap.newKeySet();
+            }
+            long start = System.nanoTime();
+            UserDirectory fresh;
+            try {
+                fresh = snapshot();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+                throw e;
+            }
+            UserDirectory previous = null;
+            while (true) {
+                Set<Long> changed;
+                synchronized (this) {
+                    if (changedDuringRebuild.isEmpty()) {
+                        previous = directory;
+                        directory = fresh;
+                        changedDuringRebuild = null;
+                        break;
+                    }
+                    changed = changedDuringRebuild;
+                    changedDuringRebuild = ConcurrentHashMap.newKeySet();
+                }
+                refresh(fresh, changed);
+            }
+            if (previous != null) {
+                previous.close();
+            }
+            log.info("User directory rebuilt with {} users, {} MB mapped, in {} ms", fresh.size(),
+                    fresh.fileSize() >> 20, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Re-reads the given users from the database into the directory.
+     */
+    void refresh(Collection<Long> ids) {
+        Map<Long, UserDTO> current = select(ids);
+        synchronized (this) {
+            for (Long id : ids) {
+                UserDTO user = current.get(id);
+                if (user != null) {
+                    put(user);
+                } else {
+                    remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Brings a directory that is not in use yet up to date for the given users.
+     */
+    private void refresh(UserDirectory target, Collection<Long> ids) {
+        Map<Long, UserDTO> current = select(ids);
+        for (Long id : ids) {
+            UserDTO user = current.get(id);
+            if (user == null || !target.put(user)) {
+                target.remove(id);
+            }
+        }
+    }
+
+    private Map<Long, UserDTO> select(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return shardRouter.scatter(shardRouter.groupByShard(ids), this::selectByIds).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(UserDTO::getId, user -> user));
+    }
+
+    private UserDirectory snapshot() {
+        UserDirectory.Builder builder = UserDirectory.builder(properties.getPath(), properties.getReserve());
+        shardRouter.scatter(() -> readOnlyTransaction.execute(status -> {
+            jdbcTemplate.query(LIVE_USERS, rs -> {
+                builder.add(toUserDTO(rs));
+            });
+            return null;
+        }));
+        return builder.build();
+    }
+
+    private List<UserDTO> selectByIds(List<Long> ids) {
+        return new NamedParameterJdbcTemplate(jdbcTemplate).query(LIVE_USERS + " AND id IN (:ids)",
+                Map.of("ids", ids), (rs, rowNum) -> toUserDTO(rs));
+    }
+
+    private void put(UserDTO user) {
+        recordChange(user.getId());
+        UserDirectory current = directory;
+        if (current != null && !current.put(user)) {
+            current.remove(user.getId());
+            requestRebuild();
+        }
+    }
+
+    private void remove(Long id) {
+        recordChange(id);
+        UserDirectory current = directory;
+        if (current != null) {
+            current.remove(id);
+        }
+    }
+
+    private void recordChange(Long id) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(id);
+        }
+    }
+
+    private void requestRebuild() {
+        if (rebuildRequested.compareAndSet(false, true)) {
+            log.info("User directory is full, rebuilding");
+            executor.execute(this::rebuildQuietly);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("User directory rebuild failed, lookups use {} directory", directory == null ? "no" : "the previous", e);
+        }
+    }
+
+    private static UserDTO toUserDTO(ResultSet rs) throws SQLException {
+        Date birthDate = rs.getDate("birth_date");
+        Date nextCardExpiry = rs.getDate("next_card_expiry");
+        return new UserDTO(rs.getLong("id"), rs.getString("name"), rs.getString("surname"),
+                birthDate == null ? null : birthDate.toLocalDate(), rs.getString("email"), rs.getInt("card_count"),
+                nextCardExpiry == null ? null : nextCardExpiry.toLocalDate());
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("user-directory-"));
+        long interval = properties.getRebuildInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::rebuildQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        UserDirectory current = directory;
+        directory = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.microservices.user_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+    @NotEmpty(message = "Ids cannot be empty")
+    @Size(max = 1000, message = "At most 1000 ids can be deleted at once")
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,15 @@
+package com.microservices.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResult {
+    private List<Long> deleted;
+    private List<Long> notFound;
+}
@@ -0,0 +1,11 @@
+package com.microservices.user_service.dto;
+
+/**
+ * How the total of a listing is computed: an exact {@code COUNT(*)} cached for a short time, the planner's
+ * row estimate from {@code pg_class}, or no total at all.
+ */
+public enum CountMode {
+    EXACT,
+    ESTIMATED,
+    NONE
+}
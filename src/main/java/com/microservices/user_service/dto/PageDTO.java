@@ -0,0 +1,39 @@
+package com.microservices.user_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Listing envelope. Keeps the scalar fields of Spring's {@code PageImpl} JSON; totals are only present when the
+ * listing was counted, see {@link CountMode}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageDTO<T> implements Serializable {
+    private List<T> content;
+    private int number;
+    private int size;
+    private int numberOfElements;
+    private boolean first;
+    private boolean last;
+    private boolean empty;
+    private boolean hasNext;
+    private Long totalElements;
+    private Integer totalPages;
+
+    public static <T> PageDTO<T> of(Slice<T> slice) {
+        Long totalElements = slice instanceof Page<T> page ? page.getTotalElements() : null;
+        Integer totalPages = slice instanceof Page<T> page ? page.getTotalPages() : null;
+        return new PageDTO<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.getNumberOfElements(),
+                slice.isFirst(), slice.isLast(), slice.isEmpty(), slice.hasNext(), totalElements, totalPages);
+    }
+}
@@ -0,0 +1,27 @@
+package com.microservices.user_service.dto;
+
+/**
+ * Keyset position in search results: the rank and id of the last user returned. Clients get it as the opaque
+ * {@code next} value of a page and send it back as {@code cursor}.
+ */
+public record SearchCursor(int rank, long id) {
+    public static final SearchCursor START = new SearchCursor(-1, 0);
+
+    public static SearchCursor parse(String value) {
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid search cursor: " + value);
+        }
+        try {
+            return new SearchCursor(Integer.parseInt(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + value, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return rank + ":" + id;
+    }
+}
@@ -0,0 +1,16 @@
+package com.microservices.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCardSummaryDTO {
+    private Long userId;
+    private int cardCount;
+    private LocalDate nextCardExpiry;
+}
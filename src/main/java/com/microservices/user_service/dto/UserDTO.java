@@ -1,5 +1,6 @@
 package com.microservices.user_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -30,4 +31,17 @@ public class UserDTO implements Serializable {
     @NotBlank(message = "Email cannot be blank")
     @Email(message = "Email should be valid")
     private String email;
+
+    /**
+     * Number of cards and earliest card expiry as of the last fold, see {@code CardSummaryFolder}. Ignored on input.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer cardCount;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDate nextCardExpiry;
+
+    public UserDTO(Long id, String name, String surname, LocalDate birthDate, String email) {
+        this(id, name, surname, birthDate, email, null, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.microservices.user_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of {@code GET /api/users/search}. {@code next} is absent on the last page; {@code truncated} means
+ * more users matched than were ranked, and a longer query will find the rest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserSearchPageDTO {
+    private List<UserDTO> content;
+    private String next;
+    private boolean truncated;
+}
@@ -0,0 +1,21 @@
+package com.microservices.user_service.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class ServiceOverloadedException extends ResponseStatusException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String group, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Concurrency limit exceeded for " + group + " operations");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,49 @@
+package com.microservices.user_service.grpc;
+
+import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.dto.UserDTOWithCards;
+import com.microservices.user_service.grpc.v1.Card;
+import com.microservices.user_service.grpc.v1.User;
+import com.microservices.user_service.grpc.v1.UserWithCards;
+
+/**
+ * Maps the service DTOs to protobuf messages. Protobuf has no null strings, so missing values become "".
+ */
+final class GrpcMessages {
+
+    private GrpcMessages() {
+    }
+
+    static User toUser(UserDTO user) {
+        return User.newBuilder()
+                .setId(user.getId())
+                .setName(orEmpty(user.getName()))
+                .setSurname(orEmpty(user.getSurname()))
+                .setBirthDate(user.getBirthDate() != null ? user.getBirthDate().toString() : "")
+                .setEmail(orEmpty(user.getEmail()))
+                .build();
+    }
+
+    static UserWithCards toUserWithCards(UserDTOWithCards user) {
+        UserWithCards.Builder builder = UserWithCards.newBuilder().setUser(toUser(user));
+        for (CardDTO card : user.getCards()) {
+            builder.addCards(toCard(card));
+        }
+        return builder.build();
+    }
+
+    static Card toCard(CardDTO card) {
+        return Card.newBuilder()
+                .setId(card.getId())
+                .setUserId(card.getUserId())
+                .setNumber(orEmpty(card.getNumber()))
+                .setHolder(orEmpty(card.getHolder()))
+                .setExpirationDate(orEmpty(card.getExpirationDate()))
+                .build();
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,160 @@
+package com.microservices.user_service.grpc;
+
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.exception.NotFoundException;
+import com.microservices.user_service.exception.ServiceOverloadedException;
+import com.microservices.user_service.grpc.v1.BatchGetUsersRequest;
+import com.microservices.user_service.grpc.v1.BatchGetUsersResponse;
+import com.microservices.user_service.grpc.v1.GetUserRequest;
+import com.microservices.user_service.grpc.v1.ListUsersRequest;
+import com.microservices.user_service.grpc.v1.User;
+import com.microservices.user_service.grpc.v1.UserLookupGrpc;
+import com.microservices.user_service.grpc.v1.UserWithCards;
+import com.microservices.user_service.service.UserService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * gRPC counterpart of the read endpoints in {@code UserController}, served from the same {@link UserService}
+ * and therefore the same caches, shard routing and database limiter.
+ */
+@Slf4j
+public class UserLookupGrpcService extends UserLookupGrpc.UserLookupImplBase {
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final UserService userService;
+
+    public UserLookupGrpcService(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public void getUser(GetUserRequest request, StreamObserver<User> responseObserver) {
+        respond(responseObserver, () -> userService.findById(request.getId())
+                .map(GrpcMessages::toUser)
+                .orElseThrow(() -> new NotFoundException("User", request.getId())));
+    }
+
+    @Override
+    public void batchGetUsers(BatchGetUsersRequest request, StreamObserver<BatchGetUsersResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            List<Long> ids = request.getIdsList();
+            if (ids.size() > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per batch");
+            }
+            Map<Long, UserDTO> users = userService.findAllById(ids);
+            BatchGetUsersResponse.Builder response = BatchGetUsersResponse.newBuilder();
+            for (Long id : ids) {
+                UserDTO user = users.get(id);
+                if (user != null) {
+                    response.addUsers(GrpcMessages.toUser(user));
+                } else {
+                    response.addNotFound(id);
+                }
+            }
+            return response.build();
+        });
+    }
+
+    @Override
+    public void getUserWithCards(GetUserRequest request, StreamObserver<UserWithCards> responseObserver) {
+        respond(responseObserver, () -> userService.findUserWithCardsById(request.getId())
+                .map(GrpcMessages::toUserWithCards)
+                .orElseThrow(() -> new NotFoundException("User", request.getId())));
+    }
+
+    /**
+     * Streams all users by id, reading {@code page_size} at a time with {@link UserService#findAllAfter}. Writes
+     * only while the client keeps up: when the transport is not ready the stream pauses until gRPC calls the
+     * on-ready handler again, so a slow client holds at most one page in memory. Stops when the client cancels.
+     */
+    @Override
+    public void listUsers(ListUsersRequest request, StreamObserver<User> responseObserver) {
+        ServerCallStreamObserver<User> observer = (ServerCallStreamObserver<User>) responseObserver;
+        int pageSize = request.getPageSize() > 0 ? Math.min(request.getPageSize(), MAX_BATCH_SIZE) : DEFAULT_PAGE_SIZE;
+        UserStream stream = new UserStream(observer, pageSize);
+        observer.setOnCancelHandler(stream::cancel);
+        observer.setOnReadyHandler(stream);
+    }
+
+    /**
+     * State of one {@code listUsers} call. gRPC runs the handlers of a call one at a time, so the fields need no
+     * locking.
+     */
+    private final class UserStream implements Runnable {
+        private final ServerCallStreamObserver<User> observer;
+        private final int pageSize;
+        private Iterator<UserDTO> page = Collections.emptyIterator();
+        private long lastId;
+        private boolean lastPage;
+        private boolean done;
+
+        UserStream(ServerCallStreamObserver<User> observer, int pageSize) {
+            this.observer = observer;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!done && observer.isReady()) {
+                    if (page.hasNext()) {
+                        UserDTO user = page.next();
+                        lastId = user.getId();
+                        observer.onNext(GrpcMessages.toUser(user));
+                    } else if (lastPage) {
+                        done = true;
+                        observer.onCompleted();
+                    } else {
+                        List<UserDTO> users = userService.findAllAfter(lastId, pageSize);
+                        lastPage = users.size() < pageSize;
+                        page = users.iterator();
+                    }
+                }
+            } catch (RuntimeException e) {
+                done = true;
+                observer.onError(toStatus(e));
+            }
+        }
+
+        void cancel() {
+            done = true;
+        }
+    }
+
+    private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    static StatusRuntimeException toStatus(RuntimeException e) {
+        if (e instanceof NotFoundException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException();
+        }
+        if (e instanceof ServiceOverloadedException overloaded) {
+            return Status.UNAVAILABLE.withDescription(overloaded.getReason()).asRuntimeException();
+        }
+        if (e instanceof IllegalArgumentException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException();
+        }
+        log.error("gRPC call failed", e);
+        return Status.INTERNAL.withDescription("Internal error").asRuntimeException();
+    }
+}
@@ -0,0 +1,345 @@
+package com.microservices.user_service.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import com.microservices.user_service.cache.RedisCircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Idempotency-Key} support for create endpoints. The first request with a key stores an in-flight
+ * marker in Redis, runs, and replaces the marker with its response. Retries with the same key and body get the
+ * stored response, with {@code Idempotent-Replayed: true}, and never reach the controller. Retries arriving while
+ * the first execution runs wait for it, up to {@code idempotency.wait-timeout}.
+ * <p>
+ * Keys are scoped per caller: the authenticated principal, else the {@code idempotency.client-header} header,
+ * else the remote address. The marker carries a token of its execution; that execution keeps it alive every third
+ * of {@code idempotency.in-flight-ttl} while it runs, and replaces or deletes it only while it still holds that
+ * token, so a marker that expired and was claimed by a retry is never touched.
+ * <p>
+ * A retry with the same key but a different body is rejected with 422. Only 2xx responses are stored and replayed.
+ * Errors release the key, so a retry runs again: their body is written by the error page in a later dispatch,
+ * after this filter has returned, and could not be stored with them. When Redis is unavailable, or {@link RedisCircuitBreaker} has the cache in degraded mode, requests run without
+ * deduplication.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+    private static final String KEY_PREFIX = "idempotency::";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long MAX_POLL_MILLIS = 200;
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+    private static final RedisScript<Long> COMPLETE = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) "
+                    + "return 1 end return 0",
+            Long.class);
+    private static final RedisScript<Long> HEARTBEAT = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+                    + "return 0",
+            Long.class);
+    private static final RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCircuitBreaker breaker;
+    private final List<String> paths;
+    private final Duration ttl;
+    private final Duration inFlightTtl;
+    private final Duration waitTimeout;
+    private final String clientHeader;
+    private final ScheduledExecutorService heartbeats;
+
+    public IdempotencyFilter(RedisTemplate<String, Object> cacheRedisTemplate,
+                             RedisCircuitBreaker breaker,
+                             @Value("${idempotency.paths:/api/users,/api/card_info}") List<String> paths,
+                             @Value("${idempotency.ttl:24h}") Duration ttl,
+                             @Value("${idempotency.in-flight-ttl:30s}") Duration inFlightTtl,
+                             @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout,
+                             @Value("${idempotency.client-header:X-Client-Id}") String clientHeader) {
+        this.redisTemplate = cacheRedisTemplate;
+        this.breaker = breaker;
+        this.paths = paths;
+        this.ttl = ttl;
+        this.inFlightTtl = inFlightTtl;
+        this.waitTimeout = waitTimeout;
+        this.clientHeader = clientHeader;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("idempotency-heartbeat-");
+        threadFactory.setDaemon(true);
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY) == null
+                || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    IDEMPOTENCY_KEY + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        if (breaker.getState() != RedisCircuitBreaker.State.CLOSED) {
+            chain.doFilter(cachedRequest, response);
+            return;
+        }
+        String key = KEY_PREFIX + caller(request) + "::" + request.getRequestURI() + "::" + idempotencyKey;
+        String fingerprint = fingerprint(request, cachedRequest.body);
+
+        IdempotencyRecord marker = IdempotencyRecord.inFlight(fingerprint);
+        IdempotencyRecord existing;
+        try {
+            existing = acquireOrWait(key, marker);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency store unavailable, running {} without deduplication", key, e);
+            breaker.onFailure(e);
+            chain.doFilter(cachedRequest, response);
+            return;
+        }
+        if (existing == null) {
+            execute(key, marker, cachedRequest, response, chain);
+        } else if (!existing.fingerprint().equals(fingerprint)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    IDEMPOTENCY_KEY + " was already used for a different request");
+        } else if (!existing.completed()) {
+            response.sendError(HttpStatus.CONFLICT.value(),
+                    "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+        } else {
+            replay(existing, response);
+        }
+    }
+
+    /**
+     * Claims the key for this request by storing {@code marker}, returning null, or returns the record of the
+     * execution that owns it. An in-flight record with a matching fingerprint is waited on until it completes,
+     * disappears because that execution failed (then the key is claimed again), or the wait times out.
+     */
+    private IdempotencyRecord acquireOrWait(String key, IdempotencyRecord marker) {
+        String fingerprint = marker.fingerprint();
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        long pollMillis = 10;
+        while (true) {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, marker, inFlightTtl))) {
+                return null;
+            }
+            IdempotencyRecord existing = redisTemplate.opsForValue().get(key) instanceof IdempotencyRecord record
+                    ? record
+                    : null;
+            if (existing != null && (existing.completed() || !existing.fingerprint().equals(fingerprint))) {
+                return existing;
+            }
+            if (System.nanoTime() >= deadline) {
+                return IdempotencyRecord.inFlight(fingerprint);
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return IdempotencyRecord.inFlight(fingerprint);
+            }
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    private void execute(String key, IdempotencyRecord marker, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        byte[] markerBytes = serialize(marker);
+        long heartbeatMillis = Math.max(inFlightTtl.toMillis() / 3, 1);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> heartbeat(key, markerBytes),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, cachingResponse);
+            if (HttpStatusCode.valueOf(cachingResponse.getStatus()).is2xxSuccessful()) {
+                IdempotencyRecord completed = new IdempotencyRecord(marker.fingerprint(), marker.token(),
+                        cachingResponse.getStatus(), cachingResponse.getContentType(),
+                        cachingResponse.getHeader(HttpHeaders.LOCATION), cachingResponse.getContentAsByteArray());
+                stored = runIfOwner(COMPLETE, key, markerBytes, serialize(completed),
+                        String.valueOf(ttl.toMillis()).getBytes(StandardCharsets.US_ASCII));
+                if (!stored) {
+                    log.warn("Idempotency key {} was taken over while its request ran, response not stored", key);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not store idempotent response for {}", key, e);
+        } finally {
+            heartbeat.cancel(false);
+            if (!stored) {
+                release(key, markerBytes);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void heartbeat(String key, byte[] markerBytes) {
+        try {
+            if (!runIfOwner(HEARTBEAT, key, markerBytes,
+                    String.valueOf(inFlightTtl.toMillis()).getBytes(StandardCharsets.US_ASCII))) {
+                log.warn("Idempotency key {} expired while its request was running", key);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not extend idempotency key {}", key, e);
+        }
+    }
+
+    private void release(String key, byte[] markerBytes) {
+        try {
+            runIfOwner(RELEASE, key, markerBytes);
+        } catch (DataAccessException e) {
+            log.warn("Could not release idempotency key {}", key, e);
+        }
+    }
+
+    /**
+     * Runs {@code script}, which acts only while the key still holds {@code markerBytes}, and returns whether it
+     * did. Arguments are passed as raw bytes, so the marker compares byte for byte with the value Redis holds.
+     */
+    private boolean runIfOwner(RedisScript<Long> script, String key, byte[] markerBytes, byte[]... args) {
+        Object[] scriptArgs = new Object[args.length + 1];
+        scriptArgs[0] = markerBytes;
+        System.arraycopy(args, 0, scriptArgs, 1, args.length);
+        Long result = redisTemplate.execute(script, RedisSerializer.byteArray(), LONG_RESULT, List.of(key),
+                scriptArgs);
+        return result != null && result > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(IdempotencyRecord record) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(record);
+    }
+
+    private String caller(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String client = request.getHeader(clientHeader);
+        if (client != null && !client.isBlank()) {
+            return "client:" + client;
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+
+    private static void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.status());
+        response.setHeader(REPLAYED, "true");
+        if (record.contentType() != null) {
+            response.setContentType(record.contentType());
+        }
+        if (record.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.location());
+        }
+        response.setContentLength(record.body().length);
+        response.getOutputStream().write(record.body());
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory: it is available now and fully read right after.
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.microservices.user_service.idempotency;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Redis value under an idempotency key: the request fingerprint and, once the first execution has finished,
+ * the response to replay. {@code status} is null while that execution is still in flight. {@code token} is
+ * unique per in-flight marker, so the execution that wrote a marker can tell it apart from a marker written by
+ * another execution of the same request after the first one expired.
+ */
+record IdempotencyRecord(String fingerprint, String token, Integer status, String contentType, String location,
+                         byte[] body) implements Serializable {
+
+    static IdempotencyRecord inFlight(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, UUID.randomUUID().toString(), null, null, null, null);
+    }
+
+    boolean completed() {
+        return status != null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.microservices.user_service.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vegas-style concurrency limit. The limit grows while observed latency stays close to the
+ * no-load latency and shrinks once requests start queueing, i.e. latency rises above it.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final int probeInterval;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicLong rejections = new AtomicLong();
+    private volatile double limit;
+    private long noLoadRttNanos;
+    private int samplesSinceProbe;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing, int probeInterval) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.probeInterval = probeInterval;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                rejections.incrementAndGet();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit obtained from {@link #tryAcquire()}.
+     *
+     * @param rttNanos time the guarded call took
+     * @param dropped  whether the call failed because the resource was overloaded
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inflightAtRelease = inflight.getAndDecrement();
+        onSample(rttNanos, inflightAtRelease, dropped);
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightAtRelease, boolean dropped) {
+        if (++samplesSinceProbe >= probeInterval) {
+            samplesSinceProbe = 0;
+            noLoadRttNanos = 0;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = Math.max(rttNanos, 1);
+            return;
+        }
+
+        double current = limit;
+        double log = Math.max(1, Math.log10(current));
+        double newLimit;
+        if (dropped) {
+            newLimit = current - log;
+        } else if (inflightAtRelease * 2 < current) {
+            return;
+        } else {
+            double queueSize = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+            if (queueSize <= log) {
+                newLimit = current + 6 * log;
+            } else if (queueSize < 3 * log) {
+                newLimit = current + log;
+            } else if (queueSize > 6 * log) {
+                newLimit = current - log;
+            } else {
+                return;
+            }
+        }
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (1 - smoothing) * current + smoothing * newLimit;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getRejections() {
+        return rejections.get();
+    }
+}
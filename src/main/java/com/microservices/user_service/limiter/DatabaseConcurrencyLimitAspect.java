@@ -0,0 +1,90 @@
+package com.microservices.user_service.limiter;
+
+import com.microservices.user_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Guards every transactional service method with a read or write {@link AdaptiveConcurrencyLimiter}.
+ * The aspect sits between the cache interceptor and the transaction interceptor, so cache hits are
+ * served without a permit while DB-bound calls are rejected before they wait for a pooled connection.
+ * A transactional method called from another one runs on the caller's connection and permit, so only the
+ * outermost call on a thread acquires one.
+ */
+@Aspect
+@Order(DatabaseConcurrencyLimitAspect.ORDER)
+public class DatabaseConcurrencyLimitAspect {
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+    public static final int CACHE_ORDER = ORDER - 1;
+
+    private static final ThreadLocal<Boolean> PERMIT_HELD = new ThreadLocal<>();
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final long retryAfterSeconds;
+
+    public DatabaseConcurrencyLimitAspect(AdaptiveConcurrencyLimiter readLimiter,
+                                          AdaptiveConcurrencyLimiter writeLimiter,
+                                          long retryAfterSeconds,
+                                          MeterRegistry meterRegistry) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+        registerMetrics(meterRegistry, "read", readLimiter);
+        registerMetrics(meterRegistry, "write", writeLimiter);
+    }
+
+    @Around("within(com.microservices.user_service.service..*) "
+            + "&& @annotation(org.springframework.transaction.annotation.Transactional)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (PERMIT_HELD.get() != null) {
+            return joinPoint.proceed();
+        }
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), Transactional.class);
+        boolean readOnly = transactional != null && transactional.readOnly();
+        AdaptiveConcurrencyLimiter limiter = readOnly ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            throw new ServiceOverloadedException(readOnly ? "read" : "write", retryAfterSeconds);
+        }
+        PERMIT_HELD.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return joinPoint.proceed();
+        } catch (CannotCreateTransactionException | QueryTimeoutException | TransientDataAccessResourceException e) {
+            dropped = true;
+            throw e;
+        } finally {
+            PERMIT_HELD.remove();
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    private static void registerMetrics(MeterRegistry registry, String group, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("db.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("group", group)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("db.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .tag("group", group)
+                .description("Calls currently holding a permit")
+                .register(registry);
+        FunctionCounter.builder("db.concurrency.rejections", limiter, AdaptiveConcurrencyLimiter::getRejections)
+                .tag("group", group)
+                .description("Calls rejected because the limit was reached")
+                .register(registry);
+    }
+}
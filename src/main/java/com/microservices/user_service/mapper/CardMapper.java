@@ -16,10 +16,14 @@ public interface CardMapper {
     CardDTO toDTO(Card card);
 
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "numberHash", ignore = true)
+    @Mapping(target = "expiresOn", ignore = true)
     Card toEntity(CardDTO cardDTO);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "numberHash", ignore = true)
+    @Mapping(target = "expiresOn", ignore = true)
     void updateEntityFromDto(CardDTO cardDTO, @MappingTarget Card card);
 
     List<CardDTO> toDTOList(List<Card> cards);
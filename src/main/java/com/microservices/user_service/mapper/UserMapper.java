@@ -4,6 +4,7 @@ import com.microservices.user_service.dto.UserDTO;
 import com.microservices.user_service.dto.UserDTOWithCards;
 import com.microservices.user_service.model.User;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING, uses = CardMapper.class)
@@ -13,5 +14,8 @@ public interface UserMapper {
 
     UserDTO toDTO(User user);
 
+    @Mapping(target = "cardCount", ignore = true)
+    @Mapping(target = "nextCardExpiry", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
     User toEntity(UserDTO userDTO);
 }
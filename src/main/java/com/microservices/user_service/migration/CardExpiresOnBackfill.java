@@ -0,0 +1,87 @@
+package com.microservices.user_service.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Derives {@code card_info.expires_on} from the {@code MM/YY} strings of existing rows: the first day of the
+ * month after the one printed on the card. Chunked and committed per chunk like {@link CardNumberHashBackfill}.
+ * Rows whose string is not a valid {@code MM/YY} are left {@code NULL}.
+ */
+@Getter
+@Setter
+public class CardExpiresOnBackfill implements CustomTaskChange {
+    private static final String UPDATE_CHUNK = """
+            UPDATE card_info SET expires_on = CAST(to_date(expiration_date, 'MM/YY') + INTERVAL '1 month' AS DATE)
+            WHERE id IN (SELECT id FROM card_info
+                         WHERE id > ? AND expires_on IS NULL
+                           AND expiration_date ~ '^(0[1-9]|1[0-2])/[0-9]{2}$'
+                         ORDER BY id LIMIT ?)
+            RETURNING id""";
+
+    private String chunkSize = "1000";
+    private long updatedRows;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        int limit = Integer.parseInt(chunkSize);
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_CHUNK)) {
+            long lastId = 0;
+            int chunkRows;
+            do {
+                chunkRows = 0;
+                update.setLong(1, lastId);
+                update.setInt(2, limit);
+                try (ResultSet rs = update.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = Math.max(lastId, rs.getLong("id"));
+                        chunkRows++;
+                    }
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                updatedRows += chunkRows;
+            } while (chunkRows == limit);
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to backfill card_info.expires_on", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled expires_on for " + updatedRows + " card_info rows";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+        // no setup required
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // no resources required
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (chunkSize == null || !chunkSize.matches("[1-9]\\d*")) {
+            errors.addError("chunkSize must be a positive integer");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,91 @@
+package com.microservices.user_service.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Copies {@code card_info} into {@code card_info_partitioned} in id order, chunked and committed per chunk like
+ * {@link CardExpiresOnBackfill}, while the {@code card_info_mirror} trigger carries concurrent writes over.
+ * <p>
+ * Each chunk share-locks its source rows, so a card deleted or updated while its chunk is copied waits for the
+ * chunk to commit and its mirrored change then applies to the copy; rows deleted before they are locked are
+ * skipped. Rows the trigger has already copied are left alone, which also makes a rerun after a failure safe.
+ */
+@Getter
+@Setter
+public class CardInfoPartitionCopy implements CustomTaskChange {
+    private static final String COPY_CHUNK = """
+            WITH chunk AS (
+                SELECT id, user_id, number, holder, expiration_date, number_hash, expires_on FROM card_info
+                WHERE id > ? ORDER BY id LIMIT ? FOR SHARE),
+            copied AS (
+                INSERT INTO card_info_partitioned
+                    (id, user_id, number, holder, expiration_date, number_hash, expires_on)
+                SELECT id, user_id, number, holder, expiration_date, number_hash, expires_on FROM chunk
+                ON CONFLICT (id, user_id) DO NOTHING)
+            SELECT count(*) AS rows, max(id) AS last_id FROM chunk""";
+
+    private String chunkSize = "1000";
+    private long copiedRows;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        int limit = Integer.parseInt(chunkSize);
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement copy = connection.prepareStatement(COPY_CHUNK)) {
+            long lastId = 0;
+            int chunkRows;
+            do {
+                copy.setLong(1, lastId);
+                copy.setInt(2, limit);
+                try (ResultSet rs = copy.executeQuery()) {
+                    rs.next();
+                    chunkRows = rs.getInt("rows");
+                    lastId = chunkRows == 0 ? lastId : rs.getLong("last_id");
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                copiedRows += chunkRows;
+            } while (chunkRows > 0);
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to copy card_info into card_info_partitioned", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Copied " + copiedRows + " card_info rows into card_info_partitioned";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+        // no setup required
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // no resources required
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (chunkSize == null || !chunkSize.matches("[1-9]\\d*")) {
+            errors.addError("chunkSize must be a positive integer");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,96 @@
+package com.microservices.user_service.migration;
+
+import com.microservices.user_service.security.CardNumberHasher;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills {@code card_info.number_hash} for rows created before the column existed.
+ * Rows are walked in id order and every chunk is committed on its own, so the
+ * migration never holds row locks on the whole table and can be resumed.
+ */
+@Getter
+@Setter
+public class CardNumberHashBackfill implements CustomTaskChange {
+    private static final String SELECT_CHUNK =
+            "SELECT id, number FROM card_info WHERE id > ? AND number_hash IS NULL ORDER BY id LIMIT ?";
+    private static final String UPDATE_HASH = "UPDATE card_info SET number_hash = ? WHERE id = ?";
+
+    private String secret;
+    private String chunkSize = "1000";
+    private long updatedRows;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        CardNumberHasher hasher = new CardNumberHasher(secret);
+        int limit = Integer.parseInt(chunkSize);
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_CHUNK);
+             PreparedStatement update = connection.prepareStatement(UPDATE_HASH)) {
+            long lastId = 0;
+            int chunkRows;
+            do {
+                chunkRows = 0;
+                select.setLong(1, lastId);
+                select.setInt(2, limit);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong("id");
+                        update.setBytes(1, hasher.hash(rs.getString("number")));
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                        chunkRows++;
+                    }
+                }
+                if (chunkRows > 0) {
+                    update.executeBatch();
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
+                    updatedRows += chunkRows;
+                }
+            } while (chunkRows == limit);
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to backfill card_info.number_hash", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled number_hash for " + updatedRows + " card_info rows";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+        // no setup required
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // no resources required
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (secret == null || secret.isBlank()) {
+            errors.addError("secret is required to compute card number fingerprints");
+        }
+        if (chunkSize == null || !chunkSize.matches("[1-9]\\d*")) {
+            errors.addError("chunkSize must be a positive integer");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,93 @@
+package com.microservices.user_service.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Sets {@code users.card_count} and {@code users.next_card_expiry} from {@code card_info}, chunked and committed
+ * per chunk like {@link CardExpiresOnBackfill}. Pending {@code user_card_deltas} of the chunk's users are removed in
+ * the same statement, so a card is counted once whether its delta was written before or after the backfill.
+ * Only users that have cards or pending deltas are written.
+ */
+@Getter
+@Setter
+public class UserCardSummaryBackfill implements CustomTaskChange {
+    private static final String UPDATE_CHUNK = """
+            WITH chunk AS (
+                SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?),
+            pending AS (
+                DELETE FROM user_card_deltas WHERE user_id IN (SELECT id FROM chunk) RETURNING user_id),
+            summary AS (
+                SELECT user_id, count(*) AS cards, min(expires_on) AS next_expiry FROM card_info
+                WHERE user_id IN (SELECT id FROM chunk) GROUP BY user_id),
+            updated AS (
+                UPDATE users u SET card_count = COALESCE(s.cards, 0), next_card_expiry = s.next_expiry
+                FROM chunk LEFT JOIN summary s ON s.user_id = chunk.id
+                WHERE u.id = chunk.id
+                  AND (s.user_id IS NOT NULL OR chunk.id IN (SELECT user_id FROM pending)))
+            SELECT count(*) AS rows, max(id) AS last_id FROM chunk""";
+
+    private String chunkSize = "1000";
+    private long scannedRows;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        int limit = Integer.parseInt(chunkSize);
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_CHUNK)) {
+            long lastId = 0;
+            int chunkRows;
+            do {
+                update.setLong(1, lastId);
+                update.setInt(2, limit);
+                try (ResultSet rs = update.executeQuery()) {
+                    rs.next();
+                    chunkRows = rs.getInt("rows");
+                    lastId = chunkRows == 0 ? lastId : rs.getLong("last_id");
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                scannedRows += chunkRows;
+            } while (chunkRows == limit);
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to backfill the card summary of users", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled the card summary of " + scannedRows + " users";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+        // no setup required
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // no resources required
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (chunkSize == null || !chunkSize.matches("[1-9]\\d*")) {
+            errors.addError("chunkSize must be a positive integer");
+        }
+        return errors;
+    }
+}
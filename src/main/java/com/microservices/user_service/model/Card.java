@@ -2,25 +2,62 @@ package com.microservices.user_service.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 @Entity
-@Table(name = "card_info")
+@Table(name = "card_info", indexes = @Index(name = "idx_card_info_expires_on", columnList = "expires_on, id"))
 @Data
 public class Card {
+    private static final DateTimeFormatter EXPIRATION_FORMAT = DateTimeFormatter.ofPattern("MM/yy");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
     private String number;
+
+    @Column(name = "number_hash", nullable = false, unique = true)
+    private byte[] numberHash;
+
     private String holder;
 
     @Column(name = "expiration_date")
     private String expirationDate;
 
+    /**
+     * First day on which the card is expired, derived from {@link #expirationDate}. Indexed for the sweeper.
+     */
+    @Column(name = "expires_on")
+    private LocalDate expiresOn;
+
+    @PrePersist
+    @PreUpdate
+    void deriveExpiresOn() {
+        expiresOn = expiresOn(expirationDate);
+    }
+
+    public static LocalDate expiresOn(String expirationDate) {
+        if (expirationDate == null) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(expirationDate, EXPIRATION_FORMAT).plusMonths(1).atDay(1);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     @Override
     public String toString() {
         return "Card{" +
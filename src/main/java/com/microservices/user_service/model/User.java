@@ -2,14 +2,23 @@ package com.microservices.user_service.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 
+/**
+ * Soft-deleted users, those with {@link #deletedAt} set, are invisible to every entity query and are removed by
+ * the purger later.
+ */
 @Entity
 @Table(name = "users")
+@SQLRestriction("deleted_at IS NULL")
 @Data
 public class User {
     @Id
@@ -21,12 +30,37 @@ public class User {
     @Column(name = "birth_date")
     private LocalDate birthDate;
 
-    @Column(unique = true)
+    /**
+     * Unique among live users through the partial {@code lower(email)} index, so the email of a soft-deleted user
+     * can be taken again at once.
+     */
     private String email;
 
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
+    /**
+     * Card summary as of the last fold of {@link UserCardDelta} rows. Only the fold writes these columns, so an
+     * update of the user never overwrites a newer count.
+     */
+    @ColumnDefault("0")
+    @Column(name = "card_count", nullable = false, insertable = false, updatable = false)
+    private int cardCount;
+
+    @Column(name = "next_card_expiry", insertable = false, updatable = false)
+    private LocalDate nextCardExpiry;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Card> cards = new ArrayList<>();
 
+    /**
+     * Emails compare case-insensitively: lookups, cache keys and the unique {@code lower(email)} index all use
+     * this form, while the column keeps the email as entered.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
         return "User{" +
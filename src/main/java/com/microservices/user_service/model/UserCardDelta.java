@@ -0,0 +1,30 @@
+package com.microservices.user_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change of a user's card count, written in the transaction that created or deleted the cards. Inserting a row
+ * takes no lock on the user, and the rows are folded into {@link User#getCardCount()} in batches later.
+ */
+@Entity
+@Table(name = "user_card_deltas", indexes = @Index(name = "idx_user_card_deltas_user_id", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+public class UserCardDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    public UserCardDelta(Long userId, int delta) {
+        this.userId = userId;
+        this.delta = delta;
+    }
+}
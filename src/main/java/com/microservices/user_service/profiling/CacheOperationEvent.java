@@ -0,0 +1,63 @@
+package com.microservices.user_service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One cache read or write, tagged with the key space ({@code users}, {@code userEmails}, ...). {@code keys} is
+ * the number of keys the operation touched and {@code hits} how many of them a read found.
+ * <p>
+ * Use {@link #begin(String, String, int)} and {@link #finish(int)}, which cost next to nothing while no recording
+ * has the event enabled and the request is not sampled by {@link RequestProfilingFilter}. A sampled request also
+ * gets the operation in its {@link RequestTrace}.
+ */
+@Name("com.microservices.user_service.CacheOperation")
+@Label("Cache Operation")
+@Category({"User Service", "Cache"})
+@Description("A cache get, put or eviction")
+@Enabled(false)
+@StackTrace(false)
+public class CacheOperationEvent extends Event {
+    @Label("Key Space")
+    String keySpace;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Keys")
+    int keys;
+
+    @Label("Hits")
+    int hits;
+
+    private transient long startNanos;
+
+    public static CacheOperationEvent begin(String keySpace, String operation, int keys) {
+        CacheOperationEvent event = new CacheOperationEvent();
+        if (event.isEnabled() || RequestTrace.isActive()) {
+            event.keySpace = keySpace;
+            event.operation = operation;
+            event.keys = keys;
+            event.startNanos = System.nanoTime();
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(int hits) {
+        if (keySpace != null) {
+            this.hits = hits;
+            RequestTrace.cache(keySpace, operation, keys, hits, System.nanoTime() - startNanos);
+            commit();
+        }
+    }
+
+    public void finish() {
+        finish(0);
+    }
+}
@@ -0,0 +1,86 @@
+package com.microservices.user_service.profiling;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the standard {@code hikaricp.*} pool metrics and also records {@code db.connection.hold}: how long each
+ * connection was held, tagged with the pool and the controller method that held it ({@code none} for work outside
+ * a request, such as the card sweeper). Hikari reports the hold time from {@code Connection.close()}, on the
+ * thread that used the connection, which is what makes the request available.
+ */
+public class ConnectionHoldMetricsTrackerFactory implements MetricsTrackerFactory {
+    private static final String NO_HANDLER = "none";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionHoldMetricsTrackerFactory(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        MeterRegistry registry = meterRegistry.getObject();
+        return new Tracker(new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats), registry,
+                poolName);
+    }
+
+    private static final class Tracker implements IMetricsTracker {
+        private final IMetricsTracker delegate;
+        private final MeterRegistry registry;
+        private final String poolName;
+        private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+
+        Tracker(IMetricsTracker delegate, MeterRegistry registry, String poolName) {
+            this.delegate = delegate;
+            this.registry = registry;
+            this.poolName = poolName;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            String handler = Objects.requireNonNullElse(ControllerHandlers.current(), NO_HANDLER);
+            holdTimers.computeIfAbsent(handler, this::holdTimer).record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        private Timer holdTimer(String handler) {
+            return Timer.builder("db.connection.hold")
+                    .description("Time a pooled connection was held, per request handler")
+                    .tag("pool", poolName)
+                    .tag("handler", handler)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.microservices.user_service.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Names requests by the controller method that handles them, e.g. {@code UserController.getUserById}, for use as a
+ * low-cardinality metric tag.
+ */
+public final class ControllerHandlers {
+    private static final String CONTROLLER_PACKAGE = "com.microservices.user_service.controller";
+
+    private ControllerHandlers() {
+    }
+
+    /**
+     * The controller method of {@code request}, or null before the handler is chosen and for handlers outside the
+     * controller package.
+     */
+    public static String nameOf(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method
+                && method.getBeanType().getPackageName().equals(CONTROLLER_PACKAGE)) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return null;
+    }
+
+    /**
+     * {@link #nameOf} for the request bound to the current thread, or null without one.
+     */
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? nameOf(servlet.getRequest()) : null;
+    }
+}
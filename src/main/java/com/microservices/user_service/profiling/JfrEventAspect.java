@@ -0,0 +1,66 @@
+package com.microservices.user_service.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Emits {@link ServiceCallEvent} and {@link RepositoryCallEvent} around service and repository methods. The aspect
+ * is the outermost one, so service calls include the cache interceptor and the database limiter. While no
+ * recording has the events enabled, it only checks {@code isEnabled()} before proceeding.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JfrEventAspect {
+
+    @Around("within(com.microservices.user_service.service..*) && execution(public * *(..))")
+    public Object serviceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        event.method = joinPoint.getSignature().getName();
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            event.exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Around("this(com.microservices.user_service.repository.UserRepository) "
+            + "|| this(com.microservices.user_service.repository.CardRepository) "
+            + "|| this(com.microservices.user_service.repository.UserCardDeltaRepository)")
+    public Object repositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.repository = repositoryName(joinPoint);
+        event.method = joinPoint.getSignature().getName();
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            event.exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (type.getPackageName().equals("com.microservices.user_service.repository")) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+}
@@ -0,0 +1,24 @@
+package com.microservices.user_service.profiling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Flight recordings taken by {@link JfrRecordingEndpoint}.
+ */
+@Data
+@ConfigurationProperties(prefix = "profiling.jfr")
+public class JfrProperties {
+    /**
+     * Events on, aspect in place. The endpoint still has to be exposed to be reachable.
+     */
+    private boolean enabled = true;
+    private Duration defaultDuration = Duration.ofSeconds(30);
+    private Duration maxDuration = Duration.ofMinutes(5);
+    /**
+     * JDK event settings the service events are added to, {@code default} (about 1% overhead) or {@code profile}.
+     */
+    private String settings = "default";
+}
@@ -0,0 +1,179 @@
+package com.microservices.user_service.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Java Flight Recorder recordings of the running service. {@code POST /actuator/jfr} with
+ * {@code {"duration": "60s"}} starts one and returns its id right away; {@code GET /actuator/jfr} shows its state, and {@code GET /actuator/jfr/<id>} returns
+ * the {@code .jfr} file once it has finished, e.g. {@code curl -o user-service.jfr /actuator/jfr/1}. The recording
+ * uses the JDK {@code settings} plus the service, repository and cache events of this package, so it shows which
+ * calls and key spaces the time goes to without attaching an agent.
+ * <p>
+ * One recording runs at a time; starting a second one gets 429. A finished recording is kept until it is
+ * downloaded, the next one starts, or the service stops. A recording stopped before its duration, e.g. with
+ * {@code jcmd JFR.stop} or at shutdown, is not returned.
+ */
+@Slf4j
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrRecordingEndpoint implements DisposableBean {
+    private static final int STATUS_ACCEPTED = 202;
+    private static final int STATUS_CONFLICT = 409;
+    /**
+     * Slack for the timer that ends a recording; a recording stopped earlier than this was stopped by someone.
+     */
+    private static final Duration STOP_TOLERANCE = Duration.ofMillis(100);
+
+    private final JfrProperties properties;
+    private Tracked current;
+
+    public record RecordingStatus(long id, String state, String duration, String startTime) {
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingStatus> start(@Nullable Duration duration)
+            throws IOException, ParseException {
+        Duration length = duration != null ? duration : properties.getDefaultDuration();
+        if (length.isNegative() || length.isZero() || length.compareTo(properties.getMaxDuration()) > 0) {
+            throw new InvalidEndpointRequestException("Duration must be positive and at most "
+                    + properties.getMaxDuration(), "Invalid duration");
+        }
+        if (current != null && current.recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        discard();
+        Recording recording = new Recording(Configuration.getConfiguration(properties.getSettings()));
+        recording.setName("user-service");
+        recording.enable(ServiceCallEvent.class);
+        recording.enable(RepositoryCallEvent.class);
+        recording.enable(CacheOperationEvent.class);
+        recording.setDuration(length);
+        recording.start();
+        current = new Tracked(recording, length);
+        log.info("JFR recording {} started for {}", recording.getId(), length);
+        return new WebEndpointResponse<>(current.status(), STATUS_ACCEPTED);
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<RecordingStatus> status() {
+        return current == null
+                ? new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND)
+                : new WebEndpointResponse<>(current.status());
+    }
+
+    /**
+     * The recording file, once the recording has run for its whole duration. The recording is released after
+     * that, so each one is downloaded once.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        if (current == null || current.recording.getId() != id) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        State state = current.state();
+        if (state == State.RECORDING) {
+            return new WebEndpointResponse<>(STATUS_CONFLICT);
+        }
+        if (state == State.INCOMPLETE) {
+            log.warn("JFR recording {} was stopped before its duration, discarding it", id);
+            discard();
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+        Path file = Files.createTempFile("user-service-", ".jfr");
+        try {
+            current.recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            discard();
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    @Override
+    public synchronized void destroy() {
+        discard();
+    }
+
+    private void discard() {
+        if (current != null) {
+            current.recording.close();
+            current = null;
+        }
+    }
+
+    private enum State { RECORDING, READY, INCOMPLETE }
+
+    private record Tracked(Recording recording, Duration duration) {
+
+        State state() {
+            RecordingState state = recording.getState();
+            if (state == RecordingState.NEW || state == RecordingState.DELAYED || state == RecordingState.RUNNING) {
+                return State.RECORDING;
+            }
+            Instant start = recording.getStartTime();
+            Instant stop = recording.getStopTime();
+            boolean ranFully = state == RecordingState.STOPPED && start != null && stop != null
+                    && Duration.between(start, stop).compareTo(duration.minus(STOP_TOLERANCE)) >= 0;
+            return ranFully ? State.READY : State.INCOMPLETE;
+        }
+
+        RecordingStatus status() {
+            return new RecordingStatus(recording.getId(), state().name(), duration.toString(),
+                    String.valueOf(recording.getStartTime()));
+        }
+    }
+
+    /**
+     * The recording file, deleted once it has been streamed. Not reported as a file, so it is always read through
+     * {@link #getInputStream()}.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
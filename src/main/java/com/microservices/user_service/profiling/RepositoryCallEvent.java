@@ -0,0 +1,29 @@
+package com.microservices.user_service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call of a Spring Data repository method.
+ */
+@Name("com.microservices.user_service.RepositoryCall")
+@Label("Repository Call")
+@Category({"User Service", "Calls"})
+@Description("A call of a repository method")
+@Enabled(false)
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Exception")
+    String exception;
+}
@@ -0,0 +1,95 @@
+package com.microservices.user_service.profiling;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the bytes each request allocates and the CPU time it uses on the request thread, and records them per
+ * controller method in {@code http.server.requests.allocated} and {@code http.server.requests.cpu}, tagged
+ * {@code handler=UserController.getUserWithCardsById}. Requests to other handlers, such as actuator, are not
+ * recorded.
+ * <p>
+ * A {@code sample-rate} share of requests also collect a {@link RequestTrace}. If one of those takes longer than
+ * {@code slow-threshold}, it is logged with its SQL statements and cache operations.
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestProfilingFilter extends OncePerRequestFilter {
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final RequestProfilingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HandlerMeters> meters = new ConcurrentHashMap<>();
+
+    public RequestProfilingFilter(RequestProfilingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()
+                ? RequestTrace.start()
+                : null;
+        long start = System.nanoTime();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long allocatedStart = threads.getCurrentThreadAllocatedBytes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedStart;
+            long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+            long elapsed = System.nanoTime() - start;
+            if (trace != null) {
+                RequestTrace.stop();
+            }
+            String handler = ControllerHandlers.nameOf(request);
+            if (handler != null) {
+                HandlerMeters handlerMeters = meters.computeIfAbsent(handler, this::register);
+                handlerMeters.allocated().record(allocated);
+                handlerMeters.cpu().record(cpu, TimeUnit.NANOSECONDS);
+            }
+            if (trace != null && elapsed >= properties.getSlowThreshold().toNanos()) {
+                log.info("Slow request {} {} handler={} status={} time={}ms cpu={}ms allocated={}KB\n  {}",
+                        request.getMethod(), request.getRequestURI(), handler, response.getStatus(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(cpu), allocated >> 10,
+                        String.join("\n  ", trace.entries()));
+            }
+        }
+    }
+
+    private HandlerMeters register(String handler) {
+        DistributionSummary allocated = DistributionSummary.builder("http.server.requests.allocated")
+                .description("Bytes allocated by the request thread")
+                .baseUnit("bytes")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Timer cpu = Timer.builder("http.server.requests.cpu")
+                .description("CPU time of the request thread")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new HandlerMeters(allocated, cpu);
+    }
+
+    private record HandlerMeters(DistributionSummary allocated, Timer cpu) {
+    }
+}
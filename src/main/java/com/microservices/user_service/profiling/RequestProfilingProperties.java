@@ -0,0 +1,20 @@
+package com.microservices.user_service.profiling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-request allocation and CPU accounting, see {@link RequestProfilingFilter}.
+ */
+@Data
+@ConfigurationProperties(prefix = "profiling.requests")
+public class RequestProfilingProperties {
+    private boolean enabled = true;
+    /**
+     * Share of requests that collect their SQL and cache operations and are logged if slow.
+     */
+    private double sampleRate = 0.01;
+    private Duration slowThreshold = Duration.ofMillis(500);
+}
@@ -0,0 +1,65 @@
+package com.microservices.user_service.profiling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SQL statements and cache operations of one sampled request, collected on the request thread. Work handed
+ * to other threads, such as the per-shard queries of a scatter, is not included.
+ */
+public final class RequestTrace {
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final int MAX_ENTRIES = 100;
+
+    private final List<String> entries = new ArrayList<>();
+    private int dropped;
+
+    private RequestTrace() {
+    }
+
+    static RequestTrace start() {
+        RequestTrace trace = new RequestTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void sql(String sql) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add("sql " + sql.replaceAll("\\s+", " ").trim());
+        }
+    }
+
+    static void cache(String keySpace, String operation, int keys, int hits, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(String.format("cache %s %s keys=%d hits=%d %.2fms", keySpace, operation, keys, hits,
+                    nanos / 1_000_000.0));
+        }
+    }
+
+    private void add(String entry) {
+        if (entries.size() < MAX_ENTRIES) {
+            entries.add(entry);
+        } else {
+            dropped++;
+        }
+    }
+
+    List<String> entries() {
+        if (dropped == 0) {
+            return entries;
+        }
+        List<String> all = new ArrayList<>(entries);
+        all.add("... " + dropped + " more");
+        return all;
+    }
+}
@@ -0,0 +1,15 @@
+package com.microservices.user_service.profiling;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Adds every statement Hibernate prepares to the {@link RequestTrace} of the current request, if it is sampled.
+ */
+public class RequestTraceStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestTrace.sql(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.user_service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call of a public service method, including the caches in front of it.
+ */
+@Name("com.microservices.user_service.ServiceCall")
+@Label("Service Call")
+@Category({"User Service", "Calls"})
+@Description("A call of a public service method")
+@Enabled(false)
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Exception")
+    String exception;
+}
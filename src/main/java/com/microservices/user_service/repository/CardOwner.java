@@ -0,0 +1,10 @@
+package com.microservices.user_service.repository;
+
+/**
+ * Row returned by {@link CardRepository#findLiveOwnerById}: the card's user and its number fingerprint.
+ */
+public interface CardOwner {
+    Long getUserId();
+
+    byte[] getNumberHash();
+}
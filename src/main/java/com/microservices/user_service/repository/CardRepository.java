@@ -1,25 +1,99 @@
 package com.microservices.user_service.repository;
 
 import com.microservices.user_service.model.Card;
+import com.microservices.user_service.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * {@code card_info} is hash partitioned by {@code user_id} when Liquibase runs V8 (the {@code card-partitioning}
+ * context, off by default). Queries that know the user, directly or through a join from {@code users}, then touch
+ * one partition; lookups by card id or number hash alone probe the index of every partition, so deletes carry the
+ * {@code user_id} they have already read. Every query here works on either layout.
+ */
 public interface CardRepository extends JpaRepository<Card, Long> {
 
     List<Card> findByUserId(Long userId);
-    Optional<Card> findByNumber(String number);
+    Optional<Card> findByNumberHash(byte[] numberHash);
+    boolean existsByNumberHash(byte[] numberHash);
 
     @Query("SELECT c FROM Card c JOIN c.user u WHERE u.email = :email")
     List<Card> findCardsByUserEmail(@Param("email") String email);
 
-    @Query(value = "SELECT * FROM card_info WHERE number = :number", nativeQuery = true)
-    Optional<Card> findByNumberNative(@Param("number") String number);
-
     Page<Card> findAll(Pageable pageable);
+
+    /**
+     * Cards of live users only; the join applies the soft-delete restriction of {@link User}.
+     */
+    @Query("SELECT c FROM Card c JOIN c.user u")
+    Slice<Card> findAllBy(Pageable pageable);
+
+    @Query("SELECT c FROM Card c JOIN c.user u WHERE c.id = :id")
+    Optional<Card> findLiveById(@Param("id") Long id);
+
+    @Query("SELECT u.id AS userId, c.numberHash AS numberHash FROM Card c JOIN c.user u WHERE c.id = :id")
+    Optional<CardOwner> findLiveOwnerById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Card c WHERE c.id = :id AND c.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT count(c) FROM Card c JOIN c.user u")
+    long countLive();
+
+    /**
+     * Deletes up to {@code limit} cards of soft-deleted users, skipping rows locked by other transactions.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM card_info WHERE (id, user_id) IN (
+                SELECT c.id, c.user_id FROM card_info c JOIN users u ON u.id = c.user_id
+                WHERE u.deleted_at IS NOT NULL
+                LIMIT :limit
+                FOR UPDATE OF c SKIP LOCKED)""", nativeQuery = true)
+    int purgeCardsOfDeletedUsers(@Param("limit") int limit);
+
+    /**
+     * Deletes the next chunk of expired cards after the keyset position {@code (afterExpiresOn, afterId)} and
+     * records one {@code user_card_deltas} row per owner in the same statement.
+     * Rows locked by other transactions are skipped rather than waited for; the next sweep picks them up.
+     */
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM card_info WHERE (id, user_id) IN (
+                    SELECT id, user_id FROM card_info
+                    WHERE expires_on <= :today AND (expires_on, id) > (:afterExpiresOn, :afterId)
+                    ORDER BY expires_on, id
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, user_id, expires_on),
+            deltas AS (
+                INSERT INTO user_card_deltas (user_id, delta)
+                SELECT user_id, -count(*) FROM deleted GROUP BY user_id)
+            SELECT id, user_id AS userId, expires_on AS expiresOn FROM deleted""", nativeQuery = true)
+    List<ExpiredCard> deleteExpiredChunk(@Param("today") LocalDate today,
+                                         @Param("afterExpiresOn") LocalDate afterExpiresOn,
+                                         @Param("afterId") long afterId,
+                                         @Param("limit") int limit);
+
+    /**
+     * A partitioned table has no statistics of its own, so the estimate is the sum over its partitions; partitions
+     * that have not been analyzed yet count as empty unless none has been.
+     */
+    @Query(value = """
+            SELECT CAST(CASE WHEN max(reltuples) < 0 THEN -1 ELSE sum(GREATEST(reltuples, 0)) END AS bigint)
+            FROM pg_class
+            WHERE (oid = 'card_info'::regclass AND relkind = 'r')
+               OR oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = 'card_info'::regclass)""",
+            nativeQuery = true)
+    long estimateCount();
 }
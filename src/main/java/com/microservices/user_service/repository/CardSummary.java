@@ -0,0 +1,14 @@
+package com.microservices.user_service.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A user's card count and earliest card expiry, including the deltas that have not been folded yet.
+ */
+public interface CardSummary {
+    Long getUserId();
+
+    Integer getCardCount();
+
+    LocalDate getNextCardExpiry();
+}
@@ -0,0 +1,10 @@
+package com.microservices.user_service.repository;
+
+/**
+ * Row returned by {@code DELETE ... RETURNING}: the keys the user was cached under.
+ */
+public interface DeletedUser {
+    Long getId();
+
+    String getEmail();
+}
@@ -0,0 +1,15 @@
+package com.microservices.user_service.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Row returned when the expired card sweeper deletes a chunk: the keyset position and the owner whose
+ * {@code usersWithCards} entry is now stale.
+ */
+public interface ExpiredCard {
+    Long getId();
+
+    Long getUserId();
+
+    LocalDate getExpiresOn();
+}
@@ -0,0 +1,10 @@
+package com.microservices.user_service.repository;
+
+/**
+ * Row returned by a fold: a user whose card summary changed and how many delta rows were folded into it.
+ */
+public interface FoldedCardDeltas {
+    Long getUserId();
+
+    long getDeltas();
+}
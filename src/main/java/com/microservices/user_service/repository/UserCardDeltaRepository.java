@@ -0,0 +1,40 @@
+package com.microservices.user_service.repository;
+
+import com.microservices.user_service.model.UserCardDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface UserCardDeltaRepository extends JpaRepository<UserCardDelta, Long> {
+
+    /**
+     * Folds up to {@code limit} of the oldest deltas into {@code users.card_count} and recomputes
+     * {@code next_card_expiry} of their users from {@code card_info}, skipping deltas locked by another fold.
+     * The users are locked in id order so concurrent folds cannot deadlock; deltas of users that no longer exist
+     * are dropped.
+     */
+    @Modifying
+    @Query(value = """
+            WITH folded AS (
+                DELETE FROM user_card_deltas WHERE id IN (
+                    SELECT id FROM user_card_deltas
+                    ORDER BY id
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING user_id, delta),
+            totals AS (
+                SELECT user_id, sum(delta) AS delta, count(*) AS deltas FROM folded GROUP BY user_id),
+            locked AS MATERIALIZED (
+                SELECT id FROM users WHERE id IN (SELECT user_id FROM totals) ORDER BY id FOR NO KEY UPDATE),
+            updated AS (
+                UPDATE users u
+                SET card_count = u.card_count + t.delta,
+                    next_card_expiry = (SELECT min(c.expires_on) FROM card_info c WHERE c.user_id = u.id)
+                FROM totals t JOIN locked l ON l.id = t.user_id
+                WHERE u.id = t.user_id)
+            SELECT user_id AS userId, deltas FROM totals""", nativeQuery = true)
+    List<FoldedCardDeltas> fold(@Param("limit") int limit);
+}
@@ -1,25 +1,158 @@
 package com.microservices.user_service.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import com.microservices.user_service.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    Optional<User> findByEmail(String email);
+    /**
+     * Case-insensitive, served by the unique {@code lower(email)} index on live users; pass the email through
+     * {@link User#normalizeEmail}.
+     */
+    @Query("SELECT u FROM User u WHERE lower(u.email) = :email")
+    Optional<User> findByEmail(@Param("email") String email);
 
-    @Query("SELECT u FROM User u WHERE u.email = :email")
-    Optional<User> findByEmailJPQL(@Param("email") String email);
-
-    @Query(value = "SELECT * FROM users WHERE email = :email", nativeQuery = true)
+    @Query(value = "SELECT * FROM users WHERE lower(email) = :email AND deleted_at IS NULL", nativeQuery = true)
     Optional<User> findByEmailNative(@Param("email") String email);
 
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.cards WHERE u.id = :id")
     Optional<User> findByIdWithCards(@Param("id") Long id);
 
     Page<User> findAll(Pageable pageable);
+
+    Slice<User> findAllBy(Pageable pageable);
+
+    /**
+     * Keyset page: the first {@code limit} users with an id above {@code afterId}, by id.
+     */
+    List<User> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * Deletes in one statement; cards go with the {@code ON DELETE CASCADE} foreign key instead of being
+     * loaded and removed one by one through the {@code cards} association.
+     */
+    @Query(value = "DELETE FROM users WHERE id IN (:ids) RETURNING id, email", nativeQuery = true)
+    List<DeletedUser> deleteAllByIdReturning(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Soft delete: marks the users deleted in one statement and leaves them and their cards to
+     * {@link #purgeDeleted}, so the cost does not depend on the number of cards.
+     */
+    @Query(value = "UPDATE users SET deleted_at = now() WHERE id IN (:ids) AND deleted_at IS NULL RETURNING id, email",
+            nativeQuery = true)
+    List<DeletedUser> softDeleteAllByIdReturning(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Removes up to {@code limit} soft-deleted users whose cards are already gone, oldest first, skipping rows
+     * locked by other transactions.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM users WHERE id IN (
+                SELECT id FROM users u
+                WHERE deleted_at IS NOT NULL
+                  AND NOT EXISTS (SELECT 1 FROM card_info c WHERE c.user_id = u.id)
+                ORDER BY deleted_at, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)""", nativeQuery = true)
+    int purgeDeleted(@Param("limit") int limit);
+
+    /**
+     * Ranks live users matching {@code term} and returns the page after {@code (afterRank, afterId)}. Each kind of
+     * match contributes at most {@code maxCandidates} users, picked in a fixed order so that every page sees the
+     * same candidates:
+     * <ul>
+     *     <li>rank 0: the email equals {@code term} or the name or surname equals {@code likeTerm}, lowest ids;</li>
+     *     <li>rank 1000: a field starts with the term, 2000: a field contains {@code pattern}, both taken from the
+     *     lowest ids containing it;</li>
+     *     <li>rank 3000-3999: the name or surname is trigram-similar to the term, highest similarity first. Only
+     *     run when the term has no {@code @} and the contained matches did not fill the cap.</li>
+     * </ul>
+     * The best {@code maxCandidates} of these by rank and id are the candidates; each row also carries their
+     * number. {@code pg_trgm} is referenced through {@code public} because the shard schemas are not on the
+     * search path.
+     */
+    @Query(value = """
+            WITH exact AS MATERIALIZED (
+                SELECT id FROM users
+                WHERE deleted_at IS NULL
+                  AND (lower(email) = :term OR name ILIKE :likeTerm OR surname ILIKE :likeTerm)),
+            contains AS MATERIALIZED (
+                SELECT id,
+                       CASE WHEN starts_with(lower(name), :term) OR starts_with(lower(surname), :term)
+                                 OR starts_with(lower(email), :term) THEN 1000
+                            ELSE 2000 END AS rank
+                FROM users
+                WHERE deleted_at IS NULL AND (name ILIKE :pattern OR surname ILIKE :pattern OR email ILIKE :pattern)
+                ORDER BY id
+                LIMIT :maxCandidates),
+            fuzzy AS (
+                SELECT id, GREATEST(public.similarity(name, :term), public.similarity(surname, :term)) AS score
+                FROM users
+                WHERE deleted_at IS NULL
+                  AND strpos(:term, '@') = 0
+                  AND (SELECT count(*) FROM contains) < :maxCandidates
+                  AND (name OPERATOR(public.%) :term OR surname OPERATOR(public.%) :term)
+                ORDER BY score DESC, id
+                LIMIT :maxCandidates),
+            candidates AS MATERIALIZED (
+                SELECT id, min(rank) AS rank
+                FROM ((SELECT id, 0 AS rank FROM exact ORDER BY id LIMIT :maxCandidates)
+                      UNION ALL SELECT id, rank FROM contains
+                      UNION ALL SELECT id, 3000 + CAST(round((1 - score) * 999) AS int) FROM fuzzy) hits
+                GROUP BY id
+                ORDER BY rank, id
+                LIMIT :maxCandidates)
+            SELECT id, rank, (SELECT count(*) FROM candidates) AS candidates
+            FROM candidates
+            WHERE (rank, id) > (:afterRank, :afterId)
+            ORDER BY rank, id
+            LIMIT :limit""", nativeQuery = true)
+    List<UserSearchHit> search(@Param("term") String term,
+                               @Param("likeTerm") String likeTerm,
+                               @Param("pattern") String pattern,
+                               @Param("maxCandidates") int maxCandidates,
+                               @Param("afterRank") int afterRank,
+                               @Param("afterId") long afterId,
+                               @Param("limit") int limit);
+
+    /**
+     * Settings for the rest of the transaction's statements. Custom plans, because a generic plan of
+     * {@link #search} cannot tell a common term from a rare one and always reads the trigram indexes; and
+     * {@code workMem} so the trigram bitmaps of a common term stay exact instead of rechecking whole pages.
+     *
+     * @return number of settings applied
+     */
+    @Query(value = """
+            SELECT count(set_config(name, value, true))
+            FROM (VALUES ('plan_cache_mode', 'force_custom_plan'), ('work_mem', :workMem)) AS settings(name, value)""",
+            nativeQuery = true)
+    long applySearchSettings(@Param("workMem") String workMem);
+
+    /**
+     * The folded summary plus the user's pending deltas. While deltas are pending the earliest expiry is read from
+     * {@code card_info}, since a delete can move it later.
+     */
+    @Query(value = """
+            SELECT u.id AS userId,
+                   CAST(u.card_count + COALESCE(d.delta, 0) AS int) AS cardCount,
+                   CASE WHEN d.delta IS NULL THEN u.next_card_expiry
+                        ELSE (SELECT min(c.expires_on) FROM card_info c WHERE c.user_id = u.id) END AS nextCardExpiry
+            FROM users u
+            LEFT JOIN (SELECT sum(delta) AS delta FROM user_card_deltas WHERE user_id = :id) d ON true
+            WHERE u.id = :id AND u.deleted_at IS NULL""", nativeQuery = true)
+    Optional<CardSummary> findCardSummary(@Param("id") Long id);
+
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = 'users'::regclass", nativeQuery = true)
+    long estimateCount();
 }
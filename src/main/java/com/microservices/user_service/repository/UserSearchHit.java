@@ -0,0 +1,13 @@
+package com.microservices.user_service.repository;
+
+/**
+ * Row returned by {@link UserRepository#search}: a matching user, its rank (lower is closer) and how many
+ * candidates the shard ranked.
+ */
+public interface UserSearchHit {
+    Long getId();
+
+    int getRank();
+
+    long getCandidates();
+}
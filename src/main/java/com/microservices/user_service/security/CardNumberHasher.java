@@ -0,0 +1,46 @@
+package com.microservices.user_service.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Derives the fixed-width fingerprint stored in {@code card_info.number_hash}.
+ * The value is a truncated HMAC-SHA256 of the card number, so equality lookups
+ * and duplicate checks never need the raw number.
+ */
+@Component
+public class CardNumberHasher {
+    public static final int HASH_LENGTH = 16;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> mac;
+
+    public CardNumberHasher(@Value("${card.fingerprint.secret}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("Card fingerprint secret must not be blank");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    public byte[] hash(String number) {
+        byte[] digest = mac.get().doFinal(number.getBytes(StandardCharsets.US_ASCII));
+        return Arrays.copyOf(digest, HASH_LENGTH);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+}
@@ -1,58 +1,119 @@
 package com.microservices.user_service.service;
 
 import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.CountMode;
 import com.microservices.user_service.exception.DuplicateResourceException;
 import com.microservices.user_service.exception.NotFoundException;
 import com.microservices.user_service.mapper.CardMapper;
 import com.microservices.user_service.model.Card;
 import com.microservices.user_service.model.User;
+import com.microservices.user_service.model.UserCardDelta;
+import com.microservices.user_service.repository.CardOwner;
 import com.microservices.user_service.repository.CardRepository;
+import com.microservices.user_service.repository.ExpiredCard;
+import com.microservices.user_service.repository.UserCardDeltaRepository;
 import com.microservices.user_service.repository.UserRepository;
+import com.microservices.user_service.security.CardNumberHasher;
+import com.microservices.user_service.shard.CardNumberShardIndex;
+import com.microservices.user_service.shard.ShardRouter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.microservices.user_service.service.TransactionHooks.afterCommit;
+import static com.microservices.user_service.service.TransactionHooks.afterRollback;
 
 @Service
 @RequiredArgsConstructor
 public class CardService {
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
+    private final UserCardDeltaRepository userCardDeltaRepository;
     private final CardMapper cardMapper;
+    private final CardNumberHasher cardNumberHasher;
+    private final RowCountService rowCountService;
+    private final ShardRouter shardRouter;
+    private final CardNumberShardIndex cardNumberIndex;
 
+    /**
+     * The number is claimed in {@link CardNumberShardIndex} before the shards are checked, so two concurrent
+     * creates of one number on different shards cannot both pass the check.
+     */
+    @CacheEvict(value = "rowCounts", key = "'card_info'")
     @Transactional
     public CardDTO createCard(CardDTO cardDTO) {
-        User user = userRepository.findById(cardDTO.getUserId())
+        int shard = shardRouter.shardOf(cardDTO.getUserId());
+        User user = shardRouter.onShard(shard, () -> userRepository.findById(cardDTO.getUserId()))
                 .orElseThrow(() -> new NotFoundException("User", cardDTO.getUserId()));
-        if (cardRepository.findByNumberNative(cardDTO.getNumber()).isPresent()) {
+        byte[] numberHash = cardNumberHasher.hash(cardDTO.getNumber());
+        if (!cardNumberIndex.claim(numberHash, shard)) {
+            throw new DuplicateResourceException("Card", "number", cardDTO.getNumber());
+        }
+        afterRollback(() -> cardNumberIndex.release(numberHash, shard));
+        if (shardRouter.scatter(() -> cardRepository.existsByNumberHash(numberHash)).contains(true)) {
             throw new DuplicateResourceException("Card", "number", cardDTO.getNumber());
         }
         Card card = cardMapper.toEntity(cardDTO);
         card.setUser(user);
-        Card savedCard = cardRepository.save(card);
+        card.setNumberHash(numberHash);
+        Card savedCard = shardRouter.onShard(shard, () -> {
+            Card saved = cardRepository.save(card);
+            userCardDeltaRepository.save(new UserCardDelta(user.getId(), 1));
+            return saved;
+        });
         return cardMapper.toDTO(savedCard);
     }
 
     @Transactional(readOnly = true)
     public CardDTO getCardById(Long id) {
-        Card card = cardRepository.findById(id)
+        Card card = shardRouter.onShardOf(id, () -> cardRepository.findLiveById(id))
                 .orElseThrow(() -> new NotFoundException("Card", id));
         return cardMapper.toDTO(card);
     }
 
     @Transactional(readOnly = true)
-    public Page<CardDTO> getAllCards(Pageable pageable) {
-        Page<Card> cardsPage = cardRepository.findAll(pageable);
-        return cardsPage.map(cardMapper::toDTO);
+    public Slice<CardDTO> getAllCards(Pageable pageable, CountMode countMode) {
+        Slice<CardDTO> cards = shardRouter.scatterSlice(pageable, cardRepository::findAllBy, Card::getId).map(cardMapper::toDTO);
+        return CountedSlices.of(cards.getContent(), pageable, cards.hasNext(), countMode,
+                rowCountService::countCards, rowCountService::estimateCards);
     }
 
+    @CacheEvict(value = "rowCounts", key = "'card_info'")
     @Transactional
     public void deleteCard(Long id) {
-        if (!cardRepository.existsById(id)) {
-            throw new NotFoundException("Card", id);
-        }
-        cardRepository.deleteById(id);
+        int shard = shardRouter.shardOf(id);
+        shardRouter.onShard(shard, () -> {
+            CardOwner owner = cardRepository.findLiveOwnerById(id)
+                    .orElseThrow(() -> new NotFoundException("Card", id));
+            if (cardRepository.deleteByIdAndUserId(id, owner.getUserId()) > 0) {
+                userCardDeltaRepository.save(new UserCardDelta(owner.getUserId(), -1));
+                afterCommit(() -> cardNumberIndex.release(owner.getNumberHash(), shard));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * One sweeper chunk in its own short transaction; see {@link ExpiredCardSweeper}.
+     */
+    @CacheEvict(value = "rowCounts", key = "'card_info'")
+    @Transactional
+    public List<ExpiredCard> deleteExpiredCards(int shard, LocalDate today, LocalDate afterExpiresOn, long afterId,
+                                                int limit) {
+        return shardRouter.onShard(shard, () -> cardRepository.deleteExpiredChunk(today, afterExpiresOn, afterId, limit));
+    }
+
+    /**
+     * One purger chunk of cards of soft-deleted users in its own short transaction; see {@link DeletedUserPurger}.
+     */
+    @Transactional
+    public int purgeCardsOfDeletedUsers(int shard, int limit) {
+        return shardRouter.onShard(shard, () -> cardRepository.purgeCardsOfDeletedUsers(limit));
     }
-}
\ No newline at end of file
+}
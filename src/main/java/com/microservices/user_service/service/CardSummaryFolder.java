@@ -0,0 +1,76 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.exception.ServiceOverloadedException;
+import com.microservices.user_service.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Folds the {@code user_card_deltas} rows written by card creates and deletes into {@code users.card_count} and
+ * {@code next_card_expiry}, in chunks of {@code card-summary.chunk-size} deltas. Card writes never update the user
+ * row themselves, so concurrent writes for one user do not queue on its lock; the fold updates each user once per
+ * chunk however many deltas it had. Other instances folding at the same time skip the deltas taken by this one.
+ */
+@Slf4j
+@Component
+public class CardSummaryFolder {
+    private final UserService userService;
+    private final ShardRouter shardRouter;
+    private final CardSummaryProperties properties;
+    private final Counter foldedDeltas;
+
+    public CardSummaryFolder(UserService userService,
+                             ShardRouter shardRouter,
+                             CardSummaryProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.foldedDeltas = Counter.builder("users.card.deltas.folded")
+                .description("Card count deltas folded into the users' card summary")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${card-summary.fold-interval:5s}",
+            initialDelayString = "${card-summary.fold-interval:5s}")
+    public void scheduledFold() {
+        fold();
+    }
+
+    /**
+     * Folds the pending deltas of every shard.
+     *
+     * @return number of folded deltas
+     */
+    public long fold() {
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.shardCount() && !Thread.currentThread().isInterrupted(); shard++) {
+            total += foldShard(shard);
+        }
+        if (total > 0) {
+            log.debug("Folded {} card count deltas", total);
+        }
+        return total;
+    }
+
+    private long foldShard(int shard) {
+        long folded = 0;
+        while (true) {
+            int deltas;
+            try {
+                deltas = userService.foldCardDeltas(shard, properties.getChunkSize());
+            } catch (ServiceOverloadedException e) {
+                log.info("Card summary fold of shard {} stopped after {} deltas, database is busy", shard, folded);
+                return folded;
+            }
+            folded += deltas;
+            foldedDeltas.increment(deltas);
+            if (deltas < properties.getChunkSize()) {
+                return folded;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.microservices.user_service.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Folding of card count deltas into the users' card summary, see {@link CardSummaryFolder}.
+ */
+@Data
+@ConfigurationProperties(prefix = "card-summary")
+public class CardSummaryProperties {
+    private Duration foldInterval = Duration.ofSeconds(5);
+    private int chunkSize = 1000;
+}
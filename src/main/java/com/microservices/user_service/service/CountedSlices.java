@@ -0,0 +1,35 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.dto.CountMode;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+final class CountedSlices {
+
+    private CountedSlices() {
+    }
+
+    /**
+     * Wraps one page of content according to the requested {@link CountMode}. An estimate is never reported
+     * below what the page itself proves to exist, and falls back to the exact count when the table has no
+     * statistics yet.
+     */
+    static <T> Slice<T> of(List<T> content, Pageable pageable, boolean hasNext, CountMode countMode,
+                           LongSupplier exactCount, LongSupplier estimatedCount) {
+        return switch (countMode) {
+            case NONE -> new SliceImpl<>(content, pageable, hasNext);
+            case EXACT -> new PageImpl<>(content, pageable, exactCount.getAsLong());
+            case ESTIMATED -> {
+                long estimate = estimatedCount.getAsLong();
+                long total = estimate >= 0 ? estimate : exactCount.getAsLong();
+                long seen = pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+                yield new PageImpl<>(content, pageable, Math.max(total, seen));
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.exception.ServiceOverloadedException;
+import com.microservices.user_service.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Removes soft-deleted users and their cards in chunks of {@code soft-delete.chunk-size} rows, cards first and then
+ * the users left without cards. Like {@link ExpiredCardSweeper}, every chunk is its own transaction followed by a
+ * pause and skips rows locked by others, so a user with many cards never holds locks for long. The caches were
+ * already evicted by the soft delete.
+ */
+@Slf4j
+@Component
+public class DeletedUserPurger {
+    private final UserService userService;
+    private final CardService cardService;
+    private final ShardRouter shardRouter;
+    private final SoftDeleteProperties properties;
+    private final Counter purgedUsers;
+    private final Counter purgedCards;
+
+    public DeletedUserPurger(UserService userService,
+                             CardService cardService,
+                             ShardRouter shardRouter,
+                             SoftDeleteProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.cardService = cardService;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.purgedUsers = Counter.builder("users.purged")
+                .description("Soft-deleted users removed by the purger")
+                .register(meterRegistry);
+        this.purgedCards = Counter.builder("cards.purged")
+                .description("Cards of soft-deleted users removed by the purger")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${soft-delete.purge-interval:30s}",
+            initialDelayString = "${soft-delete.purge-interval:30s}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    /**
+     * Purges every shard.
+     *
+     * @return number of removed users
+     */
+    public long purge() {
+        long users = 0;
+        for (int shard = 0; shard < shardRouter.shardCount() && !Thread.currentThread().isInterrupted(); shard++) {
+            long cards = purgeChunks(shard, cardService::purgeCardsOfDeletedUsers, purgedCards);
+            users += purgeChunks(shard, userService::purgeDeletedUsers, purgedUsers);
+            if (cards > 0) {
+                log.info("Purged {} cards of soft-deleted users on shard {}", cards, shard);
+            }
+        }
+        if (users > 0) {
+            log.info("Purged {} soft-deleted users", users);
+        }
+        return users;
+    }
+
+    private long purgeChunks(int shard, IntBinaryOperator chunk, Counter counter) {
+        long purged = 0;
+        while (true) {
+            int deleted;
+            try {
+                deleted = chunk.applyAsInt(shard, properties.getChunkSize());
+            } catch (ServiceOverloadedException e) {
+                log.info("Purge of shard {} stopped after {} rows, database is busy", shard, purged);
+                return purged;
+            }
+            purged += deleted;
+            counter.increment(deleted);
+            if (deleted < properties.getChunkSize() || !pause()) {
+                return purged;
+            }
+        }
+    }
+
+    private boolean pause() {
+        if (properties.getPause().isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
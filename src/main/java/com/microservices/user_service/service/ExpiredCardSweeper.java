@@ -0,0 +1,121 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.exception.ServiceOverloadedException;
+import com.microservices.user_service.repository.ExpiredCard;
+import com.microservices.user_service.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Deletes expired cards in small chunks walked in {@code (expires_on, id)} order. Every chunk is its own
+ * transaction followed by a pause, so the sweep never holds locks for long and leaves room for regular
+ * traffic. The {@code usersWithCards} entries of the owners are evicted after each chunk has committed.
+ * Scheduling is off unless {@code card-sweeper.cron} is set.
+ */
+@Slf4j
+@Component
+public class ExpiredCardSweeper {
+    private static final LocalDate KEYSET_START = LocalDate.EPOCH;
+
+    private final CardService cardService;
+    private final UserPageCache userPageCache;
+    private final ShardRouter shardRouter;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Counter deletedCards;
+
+    public ExpiredCardSweeper(CardService cardService,
+                              UserPageCache userPageCache,
+                              ShardRouter shardRouter,
+                              MeterRegistry meterRegistry,
+                              @Value("${card-sweeper.chunk-size:500}") int chunkSize,
+                              @Value("${card-sweeper.pause:200ms}") Duration pause) {
+        this.cardService = cardService;
+        this.userPageCache = userPageCache;
+        this.shardRouter = shardRouter;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.deletedCards = Counter.builder("cards.expired.deleted")
+                .description("Expired cards removed by the sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${card-sweeper.cron:-}")
+    public void scheduledSweep() {
+        sweep(LocalDate.now());
+    }
+
+    /**
+     * Deletes the cards that are expired on {@code today}, shard by shard.
+     *
+     * @return number of deleted cards
+     */
+    public long sweep(LocalDate today) {
+        long deleted = 0;
+        for (int shard = 0; shard < shardRouter.shardCount() && !Thread.currentThread().isInterrupted(); shard++) {
+            deleted += sweepShard(shard, today);
+        }
+        if (deleted > 0) {
+            log.info("Expired card sweep deleted {} cards", deleted);
+        }
+        return deleted;
+    }
+
+    private long sweepShard(int shard, LocalDate today) {
+        LocalDate afterExpiresOn = KEYSET_START;
+        long afterId = 0;
+        long deleted = 0;
+        while (true) {
+            List<ExpiredCard> chunk;
+            try {
+                chunk = cardService.deleteExpiredCards(shard, today, afterExpiresOn, afterId, chunkSize);
+            } catch (ServiceOverloadedException e) {
+                log.info("Expired card sweep of shard {} stopped after {} cards, database is busy", shard, deleted);
+                return deleted;
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+            userPageCache.evictUsersWithCards(chunk.stream().map(ExpiredCard::getUserId).toList());
+            deleted += chunk.size();
+            deletedCards.increment(chunk.size());
+
+            ExpiredCard last = chunk.stream()
+                    .reduce((a, b) -> compare(a, b) >= 0 ? a : b)
+                    .orElseThrow();
+            afterExpiresOn = last.getExpiresOn();
+            afterId = last.getId();
+            if (chunk.size() < chunkSize || !pause()) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    private static int compare(ExpiredCard a, ExpiredCard b) {
+        int byDate = a.getExpiresOn().compareTo(b.getExpiresOn());
+        return byDate != 0 ? byDate : Long.compare(a.getId(), b.getId());
+    }
+
+    private boolean pause() {
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.cache.CacheTtlPolicy;
+import com.microservices.user_service.cache.CachedPageIds;
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.exception.NotFoundException;
+import com.microservices.user_service.model.User;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of the read side of {@link UserService} and {@link CardService}.
+ * Reads and writes the same Redis entries as the {@code @Cacheable} methods, so both APIs share one cache.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserService {
+    private static final String USERS_CACHE = UserPageCache.USERS_CACHE;
+    private static final String USER_PAGES_CACHE = UserPageCache.USER_PAGES_CACHE;
+    private static final String USER_EMAILS_CACHE = UserPageCache.USER_EMAILS_CACHE;
+    private static final String USER_COLUMNS = "id, name, surname, birth_date, email, card_count, next_card_expiry";
+    private static final Map<String, String> USER_SORT_COLUMNS = Map.of(
+            "id", "id",
+            "name", "name",
+            "surname", "surname",
+            "birthDate", "birth_date",
+            "email", "email");
+
+    private final DatabaseClient databaseClient;
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final CacheTtlPolicy cacheTtlPolicy;
+
+    public Mono<UserDTO> getById(Long id) {
+        return cached(id, selectById(id))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User", id)));
+    }
+
+    /**
+     * Same scheme as {@link UserService#findByEmail}: the {@code userEmails} entry gives the id and the user comes
+     * from its canonical {@code users} entry. A stale index entry falls back to the database.
+     */
+    public Mono<UserDTO> getByEmail(String email) {
+        String normalized = User.normalizeEmail(email);
+        String indexKey = USER_EMAILS_CACHE + "::" + normalized;
+        Mono<Optional<UserDTO>> fromIndex = redisTemplate.opsForValue().get(indexKey)
+                .onErrorResume(e -> {
+                    log.warn("Reactive cache read failed for {}", indexKey, e);
+                    return Mono.empty();
+                })
+                .flatMap(value -> {
+                    if (value instanceof NullValue) {
+                        return Mono.just(Optional.<UserDTO>empty());
+                    }
+                    if (value instanceof Long id) {
+                        return cached(id, selectById(id))
+                                .filter(user -> normalized.equals(User.normalizeEmail(user.getEmail())))
+                                .map(Optional::of);
+                    }
+                    return Mono.empty();
+                });
+        Mono<Optional<UserDTO>> fromDatabase = databaseClient
+                .sql("SELECT " + USER_COLUMNS + " FROM users WHERE lower(email) = :email AND deleted_at IS NULL")
+                .bind("email", normalized)
+                .map(ReactiveUserService::toUserDTO)
+                .one()
+                .flatMap(user -> write(USER_EMAILS_CACHE, indexKey, user.getId())
+                        .then(write(USERS_CACHE, USERS_CACHE + "::" + user.getId(), user))
+                        .thenReturn(Optional.of(user)))
+                .switchIfEmpty(Mono.defer(() -> write(USER_EMAILS_CACHE, indexKey, NullValue.INSTANCE)
+                        .thenReturn(Optional.empty())));
+        return fromIndex.switchIfEmpty(fromDatabase)
+                .flatMap(Mono::justOrEmpty)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User", "email", email)));
+    }
+
+    /**
+     * Same id-list scheme as {@link UserService#getAllUsers}: the page entry holds ordered ids, users are
+     * multi-read from their per-id entries and only the misses are selected from the database. The total is
+     * the exact count shared with the servlet API through the {@code rowCounts} cache.
+     */
+    public Mono<Page<UserDTO>> getAllUsers(Pageable pageable) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE deleted_at IS NULL" + orderBy(pageable.getSort())
+                + " LIMIT :limit OFFSET :offset";
+        String pageKey = USER_PAGES_CACHE + "::" + UserPageCache.pageKey(pageable);
+        Mono<List<UserDTO>> query = databaseClient.sql(sql)
+                .bind("limit", pageable.getPageSize() + 1)
+                .bind("offset", pageable.getOffset())
+                .map(ReactiveUserService::toUserDTO)
+                .all()
+                .collectList()
+                .flatMap(rows -> {
+                    List<UserDTO> users = rows.subList(0, Math.min(rows.size(), pageable.getPageSize()));
+                    CachedPageIds pageIds = new CachedPageIds(users.stream().map(UserDTO::getId).toList(),
+                            rows.size() > pageable.getPageSize());
+                    return Flux.fromIterable(users)
+                            .flatMap(user -> write(USERS_CACHE, USERS_CACHE + "::" + user.getId(), user))
+                            .then(write(USER_PAGES_CACHE, pageKey, pageIds))
+                            .thenReturn(users);
+                });
+        Mono<List<UserDTO>> content = redisTemplate.opsForValue().get(pageKey)
+                .onErrorResume(e -> {
+                    log.warn("Reactive cache read failed for {}", pageKey, e);
+                    return Mono.empty();
+                })
+                .ofType(CachedPageIds.class)
+                .flatMap(this::assemble)
+                .switchIfEmpty(query);
+        Mono<Long> total = cached(RowCountService.ROW_COUNTS_CACHE, RowCountService.USERS_KEY,
+                databaseClient.sql("SELECT COUNT(*) FROM users WHERE deleted_at IS NULL")
+                        .map(row -> row.get(0, Long.class))
+                        .one());
+        return content.zipWith(total, (users, count) -> new PageImpl<>(users, pageable, count));
+    }
+
+    public Mono<CardDTO> getCardById(Long id) {
+        return databaseClient.sql("SELECT c.id, c.user_id, c.number, c.holder, c.expiration_date FROM card_info c"
+                        + " JOIN users u ON u.id = c.user_id WHERE c.id = :id AND u.deleted_at IS NULL")
+                .bind("id", id)
+                .map(row -> new CardDTO(
+                        row.get("id", Long.class),
+                        row.get("user_id", Long.class),
+                        row.get("number", String.class),
+                        row.get("holder", String.class),
+                        row.get("expiration_date", String.class)))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Card", id)));
+    }
+
+    private Mono<UserDTO> selectById(Long id) {
+        return databaseClient.sql("SELECT " + USER_COLUMNS + " FROM users WHERE id = :id AND deleted_at IS NULL")
+                .bind("id", id)
+                .map(ReactiveUserService::toUserDTO)
+                .one();
+    }
+
+    private <T> Mono<T> cached(Object key, Mono<T> loader) {
+        return cached(USERS_CACHE, key, loader);
+    }
+
+    /**
+     * Read-through lookup in a Spring cache. An empty loader result is stored as {@link NullValue},
+     * the same marker {@code @Cacheable} writes for an empty {@code Optional}, and comes back as an empty Mono.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> cached(String cacheName, Object key, Mono<T> loader) {
+        String redisKey = cacheName + "::" + key;
+        return redisTemplate.opsForValue().get(redisKey)
+                .onErrorResume(e -> {
+                    log.warn("Reactive cache read failed for {}", redisKey, e);
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> loader
+                        .<Object>map(value -> value)
+                        .defaultIfEmpty(NullValue.INSTANCE)
+                        .flatMap(value -> write(cacheName, redisKey, value))))
+                .filter(value -> !(value instanceof NullValue))
+                .map(value -> (T) value);
+    }
+
+    private Mono<List<UserDTO>> assemble(CachedPageIds pageIds) {
+        List<Long> ids = pageIds.ids();
+        List<String> keys = ids.stream().map(id -> USERS_CACHE + "::" + id).toList();
+        Mono<List<Object>> cachedUsers = ids.isEmpty()
+                ? Mono.just(List.of())
+                : redisTemplate.opsForValue().multiGet(keys)
+                .onErrorResume(e -> {
+                    log.warn("Reactive cache multi-read failed for {} keys", keys.size(), e);
+                    return Mono.just(Collections.nCopies(keys.size(), null));
+                });
+        return cachedUsers.flatMap(values -> {
+            Map<Long, UserDTO> users = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) instanceof UserDTO user) {
+                    users.put(ids.get(i), user);
+                }
+            }
+            List<Long> missing = ids.stream().filter(id -> !users.containsKey(id)).toList();
+            Mono<Map<Long, UserDTO>> complete = missing.isEmpty()
+                    ? Mono.just(users)
+                    : databaseClient.sql("SELECT " + USER_COLUMNS + " FROM users WHERE id IN (:ids) AND deleted_at IS NULL")
+                    .bind("ids", missing)
+                    .map(ReactiveUserService::toUserDTO)
+                    .all()
+                    .flatMap(user -> write(USERS_CACHE, USERS_CACHE + "::" + user.getId(), user))
+                    .doOnNext(user -> users.put(((UserDTO) user).getId(), (UserDTO) user))
+                    .then(Mono.just(users));
+            return complete.map(all -> ids.stream().map(all::get).filter(Objects::nonNull).toList());
+        });
+    }
+
+    private Mono<Object> write(String cacheName, String redisKey, Object value) {
+        Duration ttl = cacheTtlPolicy.timeToLive(cacheName, value instanceof NullValue ? null : value);
+        return redisTemplate.opsForValue()
+                .set(redisKey, value, ttl)
+                .onErrorResume(e -> {
+                    log.warn("Reactive cache write failed for {}", redisKey, e);
+                    return Mono.just(false);
+                })
+                .thenReturn(value);
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        return sort.stream()
+                .map(order -> {
+                    String column = USER_SORT_COLUMNS.get(order.getProperty());
+                    if (column == null) {
+                        throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+                    }
+                    return column + (order.isAscending() ? " ASC" : " DESC");
+                })
+                .collect(Collectors.joining(", ", " ORDER BY ", ""));
+    }
+
+    private static UserDTO toUserDTO(Readable row) {
+        return new UserDTO(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("surname", String.class),
+                row.get("birth_date", LocalDate.class),
+                row.get("email", String.class),
+                row.get("card_count", Integer.class),
+                row.get("next_card_expiry", LocalDate.class));
+    }
+}
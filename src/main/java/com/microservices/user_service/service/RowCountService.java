@@ -0,0 +1,59 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.repository.CardRepository;
+import com.microservices.user_service.repository.UserRepository;
+import com.microservices.user_service.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Table totals for listings. Exact counts are cached in {@code rowCounts} and evicted by the services on
+ * create and delete. Estimates come from {@code pg_class.reltuples} and are negative while the table has
+ * never been analyzed. With sharding the per-shard values are summed, and a missing estimate on any shard makes
+ * the whole estimate missing.
+ */
+@Service
+@RequiredArgsConstructor
+public class RowCountService {
+    public static final String ROW_COUNTS_CACHE = "rowCounts";
+    public static final String USERS_KEY = "users";
+    public static final String CARDS_KEY = "card_info";
+
+    private final UserRepository userRepository;
+    private final CardRepository cardRepository;
+    private final ShardRouter shardRouter;
+
+    @Cacheable(value = ROW_COUNTS_CACHE, key = "'" + USERS_KEY + "'")
+    @Transactional(readOnly = true)
+    public Long countUsers() {
+        return sum(shardRouter.scatter(userRepository::count));
+    }
+
+    @Cacheable(value = ROW_COUNTS_CACHE, key = "'" + CARDS_KEY + "'")
+    @Transactional(readOnly = true)
+    public Long countCards() {
+        return sum(shardRouter.scatter(cardRepository::countLive));
+    }
+
+    @Transactional(readOnly = true)
+    public long estimateUsers() {
+        return estimate(shardRouter.scatter(userRepository::estimateCount));
+    }
+
+    @Transactional(readOnly = true)
+    public long estimateCards() {
+        return estimate(shardRouter.scatter(cardRepository::estimateCount));
+    }
+
+    private static long sum(List<Long> counts) {
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static long estimate(List<Long> estimates) {
+        return estimates.stream().anyMatch(estimate -> estimate < 0) ? -1 : sum(estimates);
+    }
+}
@@ -0,0 +1,22 @@
+package com.microservices.user_service.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Soft delete of users and the purge that follows it, see {@link DeletedUserPurger}.
+ */
+@Data
+@ConfigurationProperties(prefix = "soft-delete")
+public class SoftDeleteProperties {
+    /**
+     * Deletes only mark users deleted. The purger runs either way, so switching this off still purges the users
+     * that were soft-deleted before.
+     */
+    private boolean enabled;
+    private Duration purgeInterval = Duration.ofSeconds(30);
+    private int chunkSize = 500;
+    private Duration pause = Duration.ofMillis(200);
+}
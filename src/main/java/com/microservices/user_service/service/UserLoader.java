@@ -0,0 +1,77 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.mapper.UserMapper;
+import com.microservices.user_service.model.User;
+import com.microservices.user_service.repository.UserRepository;
+import com.microservices.user_service.shard.EmailShardIndex;
+import com.microservices.user_service.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Database reads behind the cached lookups of {@link UserService}. A separate bean so the reads run in a read-only
+ * transaction and behind the database concurrency limiter, while cache hits in {@link UserService} take neither a
+ * connection nor a permit.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserLoader {
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ShardRouter shardRouter;
+    private final EmailShardIndex emailShardIndex;
+
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> loadPage(Pageable pageable) {
+        return shardRouter.scatterSlice(pageable, userRepository::findAllBy, User::getId).map(userMapper::toDTO);
+    }
+
+    /**
+     * The first {@code limit} users with an id above {@code afterId}, by id. Every shard returns its first
+     * {@code limit} and the merged rows are cut down to {@code limit}, so the cost does not grow with
+     * {@code afterId}.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> loadAfter(long afterId, int limit) {
+        return shardRouter.scatter(() -> userRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit)))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit)
+                .map(userMapper::toDTO)
+                .toList();
+    }
+
+    /**
+     * One query per shard. Ids that do not exist are absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> loadAllById(List<Long> ids) {
+        return shardRouter.scatter(shardRouter.groupByShard(ids), userRepository::findAllById)
+                .stream()
+                .flatMap(List::stream)
+                .map(userMapper::toDTO)
+                .toList();
+    }
+
+    /**
+     * Asks the email index for the shard, then reads the user there. {@code email} must be normalized.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserDTO> loadByEmail(String email) {
+        OptionalInt shard = emailShardIndex.shardOf(email);
+        return shard.isEmpty()
+                ? Optional.empty()
+                : shardRouter.onShard(shard.getAsInt(), () -> userRepository.findByEmail(email)).map(userMapper::toDTO);
+    }
+}
@@ -0,0 +1,22 @@
+package com.microservices.user_service.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * User search, see {@link UserSearchService}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user-search")
+public class UserSearchProperties {
+    /**
+     * Matching users ranked per shard and query. Queries matching more are answered from this many and flagged
+     * truncated.
+     */
+    private int maxCandidates = 1000;
+    /**
+     * PostgreSQL {@code work_mem} of the search transaction. Below about 16MB the trigram bitmap of a common term
+     * turns lossy and every row of its pages is rechecked.
+     */
+    private String workMem = "16MB";
+}
@@ -0,0 +1,53 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.cache.CachedSearchPage;
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.dto.SearchCursor;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.dto.UserSearchPageDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Case-insensitive search over name, surname and email. Users equal to the query come first, then users with a
+ * field starting with it, then users containing it, each group by id, then users whose name or surname is
+ * spelled similarly, closest first; pages continue from a keyset cursor. Each shard ranks at most
+ * {@code user-search.max-candidates} users, chosen the same way on every page, and flags the query truncated
+ * when there were more.
+ * <p>
+ * Pages are cached as id lists in {@code userSearches} for {@code cache.ttl.userSearches}, the users themselves
+ * come from {@link UserService#findAllById}. Not transactional so a cached page never takes a connection.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserSearchService {
+    private final UserService userService;
+    private final UserPageCache userPageCache;
+    private final UserSearchProperties properties;
+
+    public UserSearchPageDTO search(String query, SearchCursor after, int size) {
+        String term = query.trim().toLowerCase(Locale.ROOT);
+        SearchCursor cursor = after == null ? SearchCursor.START : after;
+        String searchKey = UserPageCache.searchKey(term, cursor, size);
+        CachedSearchPage page = userPageCache.getSearch(searchKey);
+        if (page == null) {
+            page = userService.searchPage(term, escapeLike(term), cursor, size, properties);
+            userPageCache.putSearch(searchKey, page);
+        }
+        Map<Long, UserDTO> users = userService.findAllById(page.ids());
+        List<UserDTO> content = page.ids().stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new UserSearchPageDTO(content, page.next(), page.truncated());
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,94 +1,338 @@
 package com.microservices.user_service.service;
 
+import com.microservices.user_service.cache.CachedPageIds;
+import com.microservices.user_service.cache.CachedSearchPage;
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.directory.UserDirectoryService;
+import com.microservices.user_service.dto.BulkDeleteResult;
+import com.microservices.user_service.dto.CountMode;
+import com.microservices.user_service.dto.SearchCursor;
+import com.microservices.user_service.dto.UserCardSummaryDTO;
 import com.microservices.user_service.dto.UserDTO;
 import com.microservices.user_service.dto.UserDTOWithCards;
 import com.microservices.user_service.exception.DuplicateResourceException;
 import com.microservices.user_service.exception.NotFoundException;
 import com.microservices.user_service.mapper.UserMapper;
 import com.microservices.user_service.model.User;
+import com.microservices.user_service.repository.DeletedUser;
+import com.microservices.user_service.repository.FoldedCardDeltas;
+import com.microservices.user_service.repository.UserCardDeltaRepository;
 import com.microservices.user_service.repository.UserRepository;
+import com.microservices.user_service.repository.UserSearchHit;
+import com.microservices.user_service.shard.EmailShardIndex;
+import com.microservices.user_service.shard.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.microservices.user_service.service.TransactionHooks.afterCommit;
+import static com.microservices.user_service.service.TransactionHooks.afterRollback;
+
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final UserLoader userLoader;
+    private final UserCardDeltaRepository userCardDeltaRepository;
     private final UserMapper userMapper;
+    private final UserPageCache userPageCache;
+    private final RowCountService rowCountService;
+    private final ShardRouter shardRouter;
+    private final EmailShardIndex emailShardIndex;
+    private final UserDirectoryService userDirectory;
+    private final SoftDeleteProperties softDelete;
 
     @Cacheable(value = "users", key = "#id")
     @Transactional(readOnly = true)
-    public UserDTO getById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("User", id));
-        return userMapper.toDTO(user);
+    public Optional<UserDTO> findById(Long id) {
+        return shardRouter.onShardOf(id, () -> userRepository.findById(id))
+                .map(userMapper::toDTO);
     }
 
     @Cacheable(value = "usersWithCards", key = "#id")
     @Transactional(readOnly = true)
-    public UserDTOWithCards getUserWithCardsById(Long id) {
-        User user = userRepository.findByIdWithCards(id)
-                .orElseThrow(() -> new NotFoundException("User", id));
-        return userMapper.toDTOWithCards(user);
+    public Optional<UserDTOWithCards> findUserWithCardsById(Long id) {
+        return shardRouter.onShardOf(id, () -> userRepository.findByIdWithCards(id))
+                .map(userMapper::toDTOWithCards);
     }
 
-    @Cacheable(value = "users", key = "#email")
+    /**
+     * Exact card count and earliest card expiry of the user, without loading the cards. Not cached: it reads one
+     * user row and the user's pending deltas.
+     */
     @Transactional(readOnly = true)
-    public UserDTO getByEmail(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new NotFoundException("User", "email", email));
-        return userMapper.toDTO(user);
+    public Optional<UserCardSummaryDTO> findCardSummary(Long id) {
+        return shardRouter.onShardOf(id, () -> userRepository.findCardSummary(id))
+                .map(summary -> new UserCardSummaryDTO(summary.getUserId(), summary.getCardCount(),
+                        summary.getNextCardExpiry()));
     }
 
-    @CacheEvict(value = {"users", "usersWithCards"}, allEntries = true)
+    /**
+     * Case-insensitive. The user directory is asked first, if enabled. Then the {@code userEmails} index maps the
+     * normalized email to the id, and the user itself comes from its canonical {@code users} entry. On a miss the
+     * user is read through {@link UserLoader}. Not transactional so a cached lookup never takes a connection.
+     */
+    public Optional<UserDTO> findByEmail(String email) {
+        String normalized = User.normalizeEmail(email);
+        UserDTO fromDirectory = userDirectory.findByEmail(normalized);
+        if (fromDirectory != null) {
+            return Optional.of(fromDirectory);
+        }
+        Long cachedId = userPageCache.getUserId(normalized);
+        if (cachedId != null) {
+            if (cachedId == UserPageCache.NO_USER) {
+                return Optional.empty();
+            }
+            UserDTO user = findAllById(List.of(cachedId)).get(cachedId);
+            if (user != null && normalized.equals(User.normalizeEmail(user.getEmail()))) {
+                return Optional.of(user);
+            }
+        }
+        Optional<UserDTO> user = userLoader.loadByEmail(normalized);
+        userPageCache.putEmail(normalized, user.orElse(null));
+        return user;
+    }
+
+    @Caching(evict = {
+            @CacheEvict(value = "userPages", allEntries = true),
+            @CacheEvict(value = "rowCounts", key = "'users'")
+    })
     @Transactional
     public UserDTO create(UserDTO userDTO) {
-        if (userRepository.findByEmailNative(userDTO.getEmail()).isPresent()) {
-            throw new DuplicateResourceException("User", "email", userDTO.getEmail());
-        }
-        User user = userMapper.toEntity(userDTO);
-        user = userRepository.save(user);
-        return userMapper.toDTO(user);
+        int shard = shardRouter.placementShard(userDTO.getEmail());
+        claimEmail(userDTO.getEmail(), shard);
+        UserDTO created = shardRouter.onShard(shard, () -> {
+            if (userRepository.findByEmailNative(User.normalizeEmail(userDTO.getEmail())).isPresent()) {
+                throw new DuplicateResourceException("User", "email", userDTO.getEmail());
+            }
+            User user = userMapper.toEntity(userDTO);
+            user = userRepository.save(user);
+            return userMapper.toDTO(user);
+        });
+        afterCommit(() -> {
+            userPageCache.evictUser(created.getId(), created.getEmail());
+            userDirectory.onUserSaved(created);
+        });
+        return created;
     }
 
-    @CacheEvict(value = {"users", "usersWithCards"}, key = "#id")
     @Transactional
     public UserDTO update(Long id, UserDTO userDTO) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("User", id));
-        if (userDTO.getEmail() != null &&
-                !user.getEmail().equals(userDTO.getEmail()) &&
-                userRepository.findByEmail(userDTO.getEmail()).isPresent()) {
+        int shard = shardRouter.shardOf(id);
+        return shardRouter.onShard(shard, () -> {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("User", id));
+            String previousEmail = user.getEmail();
+            String newEmail = User.normalizeEmail(userDTO.getEmail());
+            if (newEmail != null && !User.normalizeEmail(previousEmail).equals(newEmail)) {
+                if (userRepository.findByEmail(newEmail).isPresent()) {
+                    throw new DuplicateResourceException("User", "email", userDTO.getEmail());
+                }
+                claimEmail(userDTO.getEmail(), shard);
+                afterCommit(() -> emailShardIndex.release(previousEmail, shard));
+            }
+            user.setName(userDTO.getName());
+            user.setSurname(userDTO.getSurname());
+            user.setBirthDate(userDTO.getBirthDate());
+            user.setEmail(userDTO.getEmail());
 
-            throw new DuplicateResourceException("User", "email", userDTO.getEmail());
-        }
-        user.setName(userDTO.getName());
-        user.setSurname(userDTO.getSurname());
-        user.setBirthDate(userDTO.getBirthDate());
-        user.setEmail(userDTO.getEmail());
+            UserDTO updated = userMapper.toDTO(userRepository.save(user));
+            afterCommit(() -> {
+                userPageCache.evictUser(id, previousEmail, userDTO.getEmail());
+                userDirectory.onUserSaved(updated);
+            });
+            return updated;
+        });
+    }
 
-        user = userRepository.save(user);
-        return userMapper.toDTO(user);
+    private void claimEmail(String email, int shard) {
+        if (!emailShardIndex.claim(email, shard)) {
+            throw new DuplicateResourceException("User", "email", email);
+        }
+        afterRollback(() -> emailShardIndex.release(email, shard));
     }
 
-    @CacheEvict(value = {"users", "usersWithCards"}, key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = "userPages", allEntries = true),
+            @CacheEvict(value = "rowCounts", allEntries = true)
+    })
     @Transactional
     public void deleteById(Long id) {
-        if (!userRepository.existsById(id)) {
+        if (shardRouter.onShardOf(id, () -> deleteReturning(List.of(id))).isEmpty()) {
             throw new NotFoundException("User", id);
         }
-        userRepository.deleteById(id);
     }
 
-    @Cacheable(value = "users", key = "'page_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Caching(evict = {
+            @CacheEvict(value = "userPages", allEntries = true),
+            @CacheEvict(value = "rowCounts", allEntries = true)
+    })
+    @Transactional
+    public BulkDeleteResult bulkDelete(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        List<Long> deleted = shardRouter.scatter(shardRouter.groupByShard(requested), this::deleteReturning).stream()
+                .flatMap(List::stream)
+                .toList();
+        requested.removeAll(deleted);
+        return new BulkDeleteResult(deleted, List.copyOf(requested));
+    }
+
+    /**
+     * Deletes the users in one statement. With {@code soft-delete.enabled} it only marks them deleted and
+     * {@link DeletedUserPurger} removes them and their cards later; either way they are gone for readers and their
+     * emails are free once this commits.
+     */
+    private List<Long> deleteReturning(Collection<Long> ids) {
+        List<DeletedUser> deleted = softDelete.isEnabled()
+                ? userRepository.softDeleteAllByIdReturning(ids)
+                : userRepository.deleteAllByIdReturning(ids);
+        List<Long> deletedIds = deleted.stream().map(DeletedUser::getId).toList();
+        List<String> emails = deleted.stream().map(DeletedUser::getEmail).toList();
+        int shard = shardRouter.shardOf(ids.iterator().next());
+        afterCommit(() -> {
+            userPageCache.evictUsers(deletedIds, emails);
+            userDirectory.onUsersDeleted(deletedIds);
+            emails.forEach(email -> emailShardIndex.release(email, shard));
+        });
+        return deletedIds;
+    }
+
+    /**
+     * One purger chunk of soft-deleted users without cards in its own short transaction; see
+     * {@link DeletedUserPurger}.
+     */
+    @Transactional
+    public int purgeDeletedUsers(int shard, int limit) {
+        return shardRouter.onShard(shard, () -> userRepository.purgeDeleted(limit));
+    }
+
+    /**
+     * One folder chunk of card count deltas in its own short transaction; see {@link CardSummaryFolder}. The
+     * cached entries of the users whose summary changed are evicted once it commits.
+     *
+     * @return number of folded deltas
+     */
+    @Transactional
+    public int foldCardDeltas(int shard, int limit) {
+        List<FoldedCardDeltas> folded = shardRouter.onShard(shard, () -> userCardDeltaRepository.fold(limit));
+        List<Long> userIds = folded.stream().map(FoldedCardDeltas::getUserId).toList();
+        afterCommit(() -> {
+            userPageCache.evictUsers(userIds);
+            userDirectory.onUsersChanged(userIds);
+        });
+        return (int) folded.stream().mapToLong(FoldedCardDeltas::getDeltas).sum();
+    }
+
+    /**
+     * One page of ranked search hits over all shards, see {@link UserSearchService}. Every shard ranks its own
+     * candidates and returns the page after {@code after}; the pages are merged by rank and id.
+     *
+     * @param term     normalized query
+     * @param likeTerm the term with {@code ILIKE} wildcards escaped
+     */
     @Transactional(readOnly = true)
-    public Page<UserDTO> getAllUsers(Pageable pageable) {
-        Page<User> usersPage = userRepository.findAll(pageable);
-        return usersPage.map(userMapper::toDTO);
+    public CachedSearchPage searchPage(String term, String likeTerm, SearchCursor after, int size,
+                                       UserSearchProperties settings) {
+        int maxCandidates = settings.getMaxCandidates();
+        List<List<UserSearchHit>> shardHits = shardRouter.scatter(() -> {
+            userRepository.applySearchSettings(settings.getWorkMem());
+            return userRepository.search(term, likeTerm, "%" + likeTerm + "%", maxCandidates + 1, after.rank(),
+                    after.id(), size + 1);
+        });
+        List<UserSearchHit> hits = shardHits.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingInt(UserSearchHit::getRank).thenComparing(UserSearchHit::getId))
+                .limit(size + 1L)
+                .toList();
+        boolean truncated = shardHits.stream().flatMap(List::stream)
+                .anyMatch(hit -> hit.getCandidates() > maxCandidates);
+        List<UserSearchHit> page = hits.subList(0, Math.min(size, hits.size()));
+        String next = hits.size() > size
+                ? new SearchCursor(page.get(size - 1).getRank(), page.get(size - 1).getId()).toString()
+                : null;
+        return new CachedSearchPage(page.stream().map(UserSearchHit::getId).toList(), next, truncated);
+    }
+
+    /**
+     * Serves pages from cached id lists, assembling the content from the per-id {@code users} entries and
+     * loading only the users missing there through {@link UserLoader}. The total is added according to
+     * {@code countMode}. Not transactional so a fully cached page never takes a connection.
+     */
+    public Slice<UserDTO> getAllUsers(Pageable pageable, CountMode countMode) {
+        CachedPageIds pageIds = userPageCache.getIds(pageable);
+        if (pageIds == null) {
+            Slice<UserDTO> slice = userLoader.loadPage(pageable);
+            userPageCache.putPage(pageable, slice);
+            return withTotal(slice.getContent(), pageable, slice.hasNext(), countMode);
+        }
+        Map<Long, UserDTO> users = findAllById(pageIds.ids());
+        List<UserDTO> content = pageIds.ids().stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return withTotal(content, pageable, pageIds.hasNext(), countMode);
+    }
+
+    /**
+     * Keyset page of the user listing: the {@code size} users after {@code afterId}, by id. Each shard reads only
+     * ids above {@code afterId}, so a deep page costs the same as the first one. Not counted and not cached.
+     */
+    public Slice<UserDTO> getUsersAfter(long afterId, int size) {
+        List<UserDTO> users = userLoader.loadAfter(afterId, size + 1);
+        return new SliceImpl<>(users.subList(0, Math.min(size, users.size())), PageRequest.of(0, size, Sort.by("id")),
+                users.size() > size);
+    }
+
+    /**
+     * Keyset read for walking all users: the first {@code limit} with an id above {@code afterId}. Reads the
+     * database directly, so a full walk neither fills the page cache nor pays for an offset.
+     */
+    public List<UserDTO> findAllAfter(long afterId, int limit) {
+        return userLoader.loadAfter(afterId, limit);
+    }
+
+    /**
+     * Looks the users up in the user directory, if enabled, and the per-id {@code users} cache, and loads only the
+     * missing ones through {@link UserLoader}. Ids that do not exist are absent from the result.
+     */
+    public Map<Long, UserDTO> findAllById(List<Long> ids) {
+        Map<Long, UserDTO> users = userDirectory.findAllById(ids);
+        if (users.size() < ids.size()) {
+            users.putAll(userPageCache.getUsers(users.isEmpty()
+                    ? ids
+                    : ids.stream().filter(id -> !users.containsKey(id)).toList()));
+        }
+        List<Long> missing = ids.stream()
+                .filter(id -> !users.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            List<UserDTO> loaded = userLoader.loadAllById(missing);
+            loaded.forEach(user -> users.put(user.getId(), user));
+            userPageCache.putUsers(loaded);
+        }
+        return users;
+    }
+
+    private Slice<UserDTO> withTotal(List<UserDTO> content, Pageable pageable, boolean hasNext, CountMode countMode) {
+        return CountedSlices.of(content, pageable, hasNext, countMode,
+                rowCountService::countUsers, rowCountService::estimateUsers);
     }
 }
@@ -0,0 +1,63 @@
+package com.microservices.user_service.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Global card number to shard index in {@code card_number_index} on shard 0, keyed by the number's fingerprint.
+ * It keeps card numbers unique across shards the way {@link EmailShardIndex} does for emails; within a shard the
+ * table's own unique key is enough. Without sharding all operations are no-ops.
+ * <p>
+ * Entries are claimed before the card row is written and released after an API delete. Cards removed by the
+ * expired-card sweeper or together with their user leave their entry behind; it is taken over once the owning
+ * shard no longer has the card and the claim is older than a minute.
+ */
+public class CardNumberShardIndex {
+    private final ShardDataSources shards;
+    private final JdbcTemplate directory;
+
+    private CardNumberShardIndex() {
+        this.shards = null;
+        this.directory = null;
+    }
+
+    public CardNumberShardIndex(ShardDataSources shards) {
+        this.shards = shards;
+        this.directory = shards.jdbc(EmailShardIndex.DIRECTORY_SHARD);
+    }
+
+    public static CardNumberShardIndex singleShard() {
+        return new CardNumberShardIndex();
+    }
+
+    /**
+     * Reserves the card number with fingerprint {@code numberHash} for a card on {@code shard}.
+     *
+     * @return false if the number is taken
+     */
+    public boolean claim(byte[] numberHash, int shard) {
+        if (directory == null) {
+            return true;
+        }
+        if (directory.update("INSERT INTO card_number_index (number_hash, shard) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                numberHash, shard) == 1) {
+            return true;
+        }
+        List<Integer> owner = directory.queryForList(
+                "SELECT shard FROM card_number_index WHERE number_hash = ?", Integer.class, (Object) numberHash);
+        if (!owner.isEmpty() && !shards.jdbc(owner.get(0))
+                .queryForList("SELECT 1 FROM card_info WHERE number_hash = ?", Integer.class, (Object) numberHash).isEmpty()) {
+            return false;
+        }
+        return directory.update("""
+                UPDATE card_number_index SET shard = ?, claimed_at = now()
+                WHERE number_hash = ? AND claimed_at < now() - INTERVAL '1 minute'""", shard, numberHash) == 1;
+    }
+
+    public void release(byte[] numberHash, int shard) {
+        if (directory != null) {
+            directory.update("DELETE FROM card_number_index WHERE number_hash = ? AND shard = ?", numberHash, shard);
+        }
+    }
+}
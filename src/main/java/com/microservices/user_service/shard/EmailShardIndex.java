@@ -0,0 +1,77 @@
+package com.microservices.user_service.shard;
+
+import com.microservices.user_service.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Global email to shard index in {@code user_email_index} on shard 0. It answers email lookups and enforces
+ * email uniqueness across shards. Without sharding every email is on shard 0 and the table's unique email
+ * constraint is enough, so all operations are no-ops.
+ * <p>
+ * Entries are claimed before the user row is written and released after it is removed. A claim whose
+ * user never committed blocks the email only until it is older than a minute; after that it is taken over.
+ * Emails are stored normalized, see {@link User#normalizeEmail}.
+ */
+public class EmailShardIndex {
+    static final int DIRECTORY_SHARD = 0;
+
+    private final ShardDataSources shards;
+    private final JdbcTemplate directory;
+
+    private EmailShardIndex() {
+        this.shards = null;
+        this.directory = null;
+    }
+
+    public EmailShardIndex(ShardDataSources shards) {
+        this.shards = shards;
+        this.directory = shards.jdbc(DIRECTORY_SHARD);
+    }
+
+    public static EmailShardIndex singleShard() {
+        return new EmailShardIndex();
+    }
+
+    public OptionalInt shardOf(String email) {
+        if (directory == null) {
+            return OptionalInt.of(0);
+        }
+        List<Integer> shard = directory.queryForList(
+                "SELECT shard FROM user_email_index WHERE email = ?", Integer.class, User.normalizeEmail(email));
+        return shard.isEmpty() ? OptionalInt.empty() : OptionalInt.of(shard.get(0));
+    }
+
+    /**
+     * Reserves {@code email} for a user on {@code shard}.
+     *
+     * @return false if the email is taken
+     */
+    public boolean claim(String email, int shard) {
+        if (directory == null) {
+            return true;
+        }
+        String normalized = User.normalizeEmail(email);
+        if (directory.update("INSERT INTO user_email_index (email, shard) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                normalized, shard) == 1) {
+            return true;
+        }
+        OptionalInt owner = shardOf(normalized);
+        if (owner.isPresent() && !shards.jdbc(owner.getAsInt())
+                .queryForList("SELECT 1 FROM users WHERE lower(email) = ? AND deleted_at IS NULL", Integer.class, normalized).isEmpty()) {
+            return false;
+        }
+        return directory.update("""
+                UPDATE user_email_index SET shard = ?, claimed_at = now()
+                WHERE email = ? AND claimed_at < now() - INTERVAL '1 minute'""", shard, normalized) == 1;
+    }
+
+    public void release(String email, int shard) {
+        if (directory != null) {
+            directory.update("DELETE FROM user_email_index WHERE email = ? AND shard = ?",
+                    User.normalizeEmail(email), shard);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.microservices.user_service.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The connection pools of all shards, indexed by shard. Deliberately not exposed as {@link DataSource} beans:
+ * the application sees only the routing data source.
+ */
+public class ShardDataSources implements DisposableBean {
+    private final List<HikariDataSource> dataSources;
+    private final List<String> schemas;
+
+    public ShardDataSources(List<HikariDataSource> dataSources, List<String> schemas) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        this.schemas = schemas;
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public DataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public String schema(int shard) {
+        return schemas.get(shard);
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(get(shard));
+    }
+
+    @Override
+    public void destroy() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,181 @@
+package com.microservices.user_service.shard;
+
+import com.microservices.user_service.exception.UnsupportedSortException;
+import com.microservices.user_service.model.User;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Routes persistence work to shards. A user and its cards live on one shard. Each shard's id sequences
+ * only hand out values {@code v} with {@code (v - 1) mod shardCount == shard}, so an id alone locates its row.
+ * <p>
+ * Single-shard work runs in the caller's transaction: {@link #onShard} only selects the connection that the
+ * transaction will acquire. Work spanning shards goes through {@link #scatter}, which gives every shard its
+ * own transaction and runs the shards in parallel. With sharding off there is a single shard, and scatter runs
+ * inline in the caller's transaction.
+ */
+public class ShardRouter implements AutoCloseable {
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final TransactionTemplate shardTransaction;
+    private final ExecutorService executor;
+
+    private ShardRouter() {
+        this.shardCount = 1;
+        this.shardTransaction = null;
+        this.executor = null;
+    }
+
+    public ShardRouter(int shardCount, PlatformTransactionManager transactionManager) {
+        this.shardCount = shardCount;
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        this.shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = Executors.newFixedThreadPool(shardCount * 2, new CustomizableThreadFactory("shard-scatter-"));
+    }
+
+    public static ShardRouter singleShard() {
+        return new ShardRouter();
+    }
+
+    /**
+     * Data source that follows {@link #onShard}. Connections are taken lazily, at the first statement.
+     */
+    public static DataSource routingDataSource(ShardDataSources shards) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shards));
+    }
+
+    static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(long id) {
+        return (int) Math.floorMod(id - 1, (long) shardCount);
+    }
+
+    /**
+     * Shard a new user is created on, by the normalized email so that case variants of an address agree.
+     */
+    public int placementShard(String email) {
+        return Math.floorMod(User.normalizeEmail(email).hashCode(), shardCount);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    public <T> T onShardOf(long id, Supplier<T> action) {
+        return onShard(shardOf(id), action);
+    }
+
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> ids) {
+        return ids.stream().collect(Collectors.groupingBy(this::shardOf, TreeMap::new, Collectors.toList()));
+    }
+
+    /**
+     * Runs {@code action} on every shard; results are in shard order.
+     */
+    public <T> List<T> scatter(Supplier<T> action) {
+        Map<Integer, Void> allShards = new TreeMap<>();
+        IntStream.range(0, shardCount).forEach(shard -> allShards.put(shard, null));
+        return scatter(allShards, ignored -> action.get());
+    }
+
+    /**
+     * Runs {@code action} once per entry on the entry's shard; results are in the map's iteration order.
+     */
+    public <A, T> List<T> scatter(Map<Integer, A> argsByShard, Function<A, T> action) {
+        if (shardTransaction == null) {
+            return argsByShard.entrySet().stream()
+                    .map(entry -> onShard(entry.getKey(), () -> action.apply(entry.getValue())))
+                    .toList();
+        }
+        List<CompletableFuture<T>> results = argsByShard.entrySet().stream()
+                .map(entry -> CompletableFuture.supplyAsync(() -> onShard(entry.getKey(),
+                        () -> shardTransaction.execute(status -> action.apply(entry.getValue()))), executor))
+                .toList();
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads one page across all shards, ordered by id. Every shard returns its first {@code offset + size} rows
+     * and the merged rows are cut down to the page, so deep pages cost {@code offset + size} rows per shard; walks
+     * over many pages should use a keyset read instead. Other sort keys are rejected when sharded: merging them in
+     * Java would not follow the database collation, so pages could skip or repeat rows.
+     *
+     * @param idOf id of a row, the merge key
+     */
+    public <E> Slice<E> scatterSlice(Pageable pageable, Function<Pageable, Slice<E>> query, Function<E, Long> idOf) {
+        if (shardTransaction == null) {
+            return query.apply(pageable);
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id");
+        Sort.Order byId = sort.getOrderFor("id");
+        if (byId == null || sort.stream().count() > 1) {
+            throw new UnsupportedSortException("Sharded listings can only be sorted by id");
+        }
+        int window = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        Pageable shardPage = PageRequest.of(0, window, sort);
+        List<Slice<E>> slices = scatter(() -> query.apply(shardPage));
+
+        Comparator<E> order = Comparator.comparing(idOf);
+        List<E> merged = slices.stream()
+                .flatMap(slice -> slice.getContent().stream())
+                .sorted(byId.isAscending() ? order : order.reversed())
+                .toList();
+        boolean hasNext = merged.size() > window || slices.stream().anyMatch(Slice::hasNext);
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        return new SliceImpl<>(merged.subList(from, Math.min(window, merged.size())), pageable, hasNext);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.user_service.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the shard set by {@link ShardRouter#onShard} on the calling thread, or shard 0 when none is set.
+ * Wrapped in a {@code LazyConnectionDataSourceProxy} by {@link ShardRouter#routingDataSource}: transactions
+ * begin before the service code has chosen a shard, and the lazy proxy defers the lookup to the first statement.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    ShardRoutingDataSource(ShardDataSources shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+}
@@ -0,0 +1,56 @@
+package com.microservices.user_service.shard;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs the changelog against every shard, creating the shard's schema first when one is configured, and then
+ * aligns the shard's id sequences with {@link ShardRouter#shardOf}.
+ */
+public class ShardedLiquibase extends SpringLiquibase {
+    private static final String[] SHARDED_TABLES = {"users", "card_info"};
+
+    private final ShardDataSources shards;
+
+    public ShardedLiquibase(ShardDataSources shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JdbcTemplate jdbc = shards.jdbc(shard);
+            String schema = shards.schema(shard);
+            if (schema != null) {
+                jdbc.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+                setDefaultSchema(schema);
+            }
+            setDataSource(shards.get(shard));
+            super.afterPropertiesSet();
+            for (String table : SHARDED_TABLES) {
+                alignSequence(jdbc, table, shard);
+            }
+        }
+    }
+
+    /**
+     * Makes the table's id sequence step by the shard count from the next free value congruent to the shard.
+     * Runs only while the increment is still wrong, i.e. once per shard layout.
+     */
+    private void alignSequence(JdbcTemplate jdbc, String table, int shard) {
+        int shardCount = shards.size();
+        String sequence = jdbc.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+        Long increment = jdbc.queryForObject(
+                "SELECT seqincrement FROM pg_sequence WHERE seqrelid = CAST(? AS regclass)", Long.class, sequence);
+        if (increment != null && increment == shardCount) {
+            return;
+        }
+        Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long lastValue = jdbc.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+        long next = Math.max(maxId, lastValue) + 1;
+        next += Math.floorMod(shard - (next - 1), shardCount);
+        jdbc.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + shardCount);
+        jdbc.queryForObject("SELECT setval(?, ?, false)", Long.class, sequence, next);
+    }
+}
@@ -0,0 +1,27 @@
+package com.microservices.user_service.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharded persistence settings. Shards without their own url, username or password use the
+ * {@code spring.datasource} ones, so several schemas of one database can stand in for several databases.
+ */
+@Data
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+    private boolean enabled;
+    private int poolSize = 10;
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String schema;
+    }
+}
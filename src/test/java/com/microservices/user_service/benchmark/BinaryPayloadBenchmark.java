@@ -0,0 +1,113 @@
+package com.microservices.user_service.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.PageDTO;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.dto.UserDTOWithCards;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode throughput of a 50-user page and a user with 10 cards in JSON, CBOR and Smile,
+ * with the mapper configuration of Spring's builder. The payload sizes are printed during setup.
+ * <p>
+ * Run like {@link JsonSerializationBenchmark}, with {@code com.microservices.user_service.benchmark.BinaryPayloadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryPayloadBenchmark {
+    private static final TypeReference<PageDTO<UserDTO>> PAGE_TYPE = new TypeReference<>() { };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private PageDTO<UserDTO> page;
+    private UserDTOWithCards userWithCards;
+    private byte[] pageBytes;
+    private byte[] userWithCardsBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> Jackson2ObjectMapperBuilder.json();
+        };
+        mapper = builder.build();
+
+        List<UserDTO> users = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            users.add(new UserDTO(i, "Name" + i, "Surname" + i, LocalDate.of(1990, 1, 1).plusDays(i),
+                    "user" + i + "@example.com"));
+        }
+        page = PageDTO.of(new PageImpl<>(users, PageRequest.of(0, 50), 10_000));
+
+        userWithCards = new UserDTOWithCards();
+        userWithCards.setId(1L);
+        userWithCards.setName("Kira");
+        userWithCards.setSurname("Chang");
+        userWithCards.setEmail("kira.chang@example.com");
+        userWithCards.setBirthDate(LocalDate.of(1990, 1, 1));
+        for (long i = 0; i < 10; i++) {
+            userWithCards.getCards().add(new CardDTO(i, 1L, "123456781234567" + i, "KIRA CHANG", "12/25"));
+        }
+
+        pageBytes = mapper.writeValueAsBytes(page);
+        userWithCardsBytes = mapper.writeValueAsBytes(userWithCards);
+        System.out.printf("%n%s: page %d bytes, user with cards %d bytes%n",
+                format, pageBytes.length, userWithCardsBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageDTO<UserDTO> decodePage() throws Exception {
+        return mapper.readValue(pageBytes, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public byte[] encodeUserWithCards() throws Exception {
+        return mapper.writeValueAsBytes(userWithCards);
+    }
+
+    @Benchmark
+    public UserDTOWithCards decodeUserWithCards() throws Exception {
+        return mapper.readValue(userWithCardsBytes, UserDTOWithCards.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BinaryPayloadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
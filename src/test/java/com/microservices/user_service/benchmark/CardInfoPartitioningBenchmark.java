@@ -0,0 +1,205 @@
+package com.microservices.user_service.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card inserts and per-user card reads against {@code card_info} as created by V2 to V4 ({@code plain}) and as
+ * hash partitioned by V8 ({@code partitioned}), the latter with the {@code card_number_hashes} trigger. Each layout
+ * is loaded with {@code users} users of {@code cardsPerUser} cards into the {@code card_info_benchmark} schema,
+ * which is dropped afterwards.
+ * <p>
+ * Needs a PostgreSQL database: {@code -Dbenchmark.jdbc.url}, {@code -Dbenchmark.jdbc.user} and
+ * {@code -Dbenchmark.jdbc.password}, by default the {@code postgres} database on localhost. Otherwise run like
+ * {@link JsonSerializationBenchmark}, with {@code com.microservices.user_service.benchmark.CardInfoPartitioningBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CardInfoPartitioningBenchmark {
+    private static final String SCHEMA = "card_info_benchmark";
+    private static final String[] PLAIN = {
+            """
+            CREATE TABLE card_info (
+                id BIGSERIAL PRIMARY KEY,
+                user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+                number VARCHAR(19) NOT NULL,
+                holder VARCHAR(50) NOT NULL,
+                expiration_date VARCHAR(5) NOT NULL,
+                number_hash BYTEA NOT NULL,
+                expires_on DATE)""",
+            "CREATE INDEX idx_card_info_user_id ON card_info (user_id)",
+            "CREATE UNIQUE INDEX uq_card_info_number_hash ON card_info (number_hash)",
+            "CREATE INDEX idx_card_info_expires_on ON card_info (expires_on, id)"
+    };
+    private static final String[] PARTITIONED = {
+            """
+            CREATE TABLE card_info (
+                id BIGSERIAL,
+                user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+                number VARCHAR(19) NOT NULL,
+                holder VARCHAR(50) NOT NULL,
+                expiration_date VARCHAR(5) NOT NULL,
+                number_hash BYTEA NOT NULL,
+                expires_on DATE,
+                PRIMARY KEY (id, user_id)
+            ) PARTITION BY HASH (user_id)""",
+            """
+            DO $$
+            BEGIN
+                FOR remainder IN 0..15 LOOP
+                    EXECUTE format('CREATE TABLE card_info_p%s PARTITION OF card_info
+                                    FOR VALUES WITH (MODULUS 16, REMAINDER %s)', remainder, remainder);
+                END LOOP;
+            END
+            $$""",
+            "CREATE INDEX idx_card_info_user_id ON card_info (user_id)",
+            "CREATE INDEX idx_card_info_number_hash ON card_info (number_hash)",
+            "CREATE INDEX idx_card_info_expires_on ON card_info (expires_on, id)",
+            "CREATE TABLE card_number_hashes (number_hash BYTEA PRIMARY KEY, card_id BIGINT NOT NULL)",
+            """
+            CREATE FUNCTION card_number_hashes_sync() RETURNS trigger
+            LANGUAGE plpgsql SET search_path FROM CURRENT AS $$
+            BEGIN
+                IF TG_OP IN ('UPDATE', 'DELETE') THEN
+                    DELETE FROM card_number_hashes WHERE number_hash = OLD.number_hash AND card_id = OLD.id;
+                END IF;
+                IF TG_OP IN ('INSERT', 'UPDATE') THEN
+                    INSERT INTO card_number_hashes (number_hash, card_id) VALUES (NEW.number_hash, NEW.id);
+                END IF;
+                RETURN NULL;
+            END
+            $$""",
+            """
+            CREATE TRIGGER card_number_hashes_sync
+            AFTER INSERT OR DELETE OR UPDATE OF number_hash ON card_info
+            FOR EACH ROW EXECUTE FUNCTION card_number_hashes_sync()"""
+    };
+    private static final String LOAD_CARDS = """
+            INSERT INTO card_info (user_id, number, holder, expiration_date, number_hash, expires_on)
+            SELECT u, lpad(u::text || c::text, 16, '4'), 'Holder', '12/30', sha256((u * 100 + c)::text::bytea),
+                   DATE '2031-01-01'
+            FROM generate_series(1, ?) u, generate_series(1, ?) c""";
+    private static final String INSERT_CARD = """
+            INSERT INTO card_info (user_id, number, holder, expiration_date, number_hash, expires_on)
+            VALUES (?, '4000000000000000', 'Holder', '12/30', sha256(?::bytea), DATE '2031-01-01')""";
+
+    @Param({"plain", "partitioned"})
+    private String layout;
+
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"2"})
+    private int cardsPerUser;
+
+    private Connection connection;
+    private PreparedStatement insertCard;
+    private PreparedStatement cardsOfUser;
+    private long inserted;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("benchmark.jdbc.user", "test"),
+                System.getProperty("benchmark.jdbc.password", "test"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+            statement.execute("INSERT INTO users SELECT generate_series(1, " + users + ")");
+            for (String ddl : "partitioned".equals(layout) ? PARTITIONED : PLAIN) {
+                statement.execute(ddl);
+            }
+        }
+        long start = System.nanoTime();
+        try (PreparedStatement load = connection.prepareStatement(LOAD_CARDS)) {
+            load.setInt(1, users);
+            load.setInt(2, cardsPerUser);
+            load.executeUpdate();
+        }
+        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE card_info");
+        }
+        System.out.printf("%n%s: %d cards loaded in %d ms, %d MB of indexes%n", layout, (long) users * cardsPerUser,
+                loadMillis, indexBytes() >> 20);
+        insertCard = connection.prepareStatement(INSERT_CARD);
+        cardsOfUser = connection.prepareStatement("SELECT * FROM card_info WHERE user_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertCard() throws SQLException {
+        insertCard.setLong(1, randomUser());
+        insertCard.setString(2, "benchmark-" + inserted++);
+        return insertCard.executeUpdate();
+    }
+
+    @Benchmark
+    public int cardsOfUser() throws SQLException {
+        cardsOfUser.setLong(1, randomUser());
+        int cards = 0;
+        try (ResultSet rs = cardsOfUser.executeQuery()) {
+            while (rs.next()) {
+                cards++;
+            }
+        }
+        return cards;
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1L);
+    }
+
+    private long indexBytes() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT sum(pg_relation_size(indexrelid)) FROM pg_index
+                     JOIN pg_class c ON c.oid = indrelid JOIN pg_namespace n ON n.oid = c.relnamespace
+                     WHERE n.nspname = '%s'""".formatted(SCHEMA))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardInfoPartitioningBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
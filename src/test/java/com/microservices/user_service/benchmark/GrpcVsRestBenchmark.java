@@ -0,0 +1,244 @@
+package com.microservices.user_service.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user_service.controller.CountModeConverter;
+import com.microservices.user_service.controller.UserController;
+import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.CountMode;
+import com.microservices.user_service.dto.PageDTO;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.dto.UserDTOWithCards;
+import com.microservices.user_service.grpc.UserLookupGrpcService;
+import com.microservices.user_service.grpc.v1.GetUserRequest;
+import com.microservices.user_service.grpc.v1.ListUsersRequest;
+import com.microservices.user_service.grpc.v1.User;
+import com.microservices.user_service.grpc.v1.UserLookupGrpc;
+import com.microservices.user_service.grpc.v1.UserWithCards;
+import com.microservices.user_service.service.UserService;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Compares the REST endpoints with the gRPC lookups for the same {@link UserService} answers, client decoding
+ * included. The service is a stub, so the numbers are the transport and serialization cost per call.
+ * <p>
+ * Both sides run in-process on the calling thread: REST through MockMvc with the API Jackson configuration,
+ * gRPC through the in-process transport with a direct executor. The gRPC server is wrapped with byte-array
+ * marshalling because the in-process transport otherwise hands protobuf messages over without encoding them.
+ * Running on one thread also makes the thread CPU time per call, printed after each iteration, comparable.
+ * <p>
+ * Run like {@link JsonSerializationBenchmark}, with {@code com.microservices.user_service.benchmark.GrpcVsRestBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrpcVsRestBenchmark {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private ObjectMapper apiMapper;
+    private MockMvc mockMvc;
+    private Server server;
+    private ManagedChannel channel;
+    private UserLookupGrpc.UserLookupBlockingStub stub;
+    private long cpuNanos;
+    private long calls;
+
+    @Setup
+    public void setUp() throws IOException {
+        apiMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        UserService userService = stubUserService();
+
+        FormattingConversionService conversionService = new FormattingConversionService();
+        conversionService.addConverter(new CountModeConverter());
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, null))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(apiMapper))
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .setConversionService(conversionService)
+                .build();
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(ServerInterceptors.useMarshalledMessages(
+                        new UserLookupGrpcService(userService).bindService(), new ByteArrayMarshaller()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = UserLookupGrpc.newBlockingStub(channel);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCpu() {
+        cpuNanos = 0;
+        calls = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCpu() {
+        System.out.printf(" (%.1f us CPU per call)", cpuNanos / 1000.0 / calls);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public UserDTO restGetUser() {
+        return measure(() -> readJson(mockMvcGet("/api/users/1"), new TypeReference<UserDTO>() { }));
+    }
+
+    @Benchmark
+    public User grpcGetUser() {
+        return measure(() -> stub.getUser(GetUserRequest.newBuilder().setId(1L).build()));
+    }
+
+    @Benchmark
+    public UserDTOWithCards restGetUserWithCards() {
+        return measure(() -> readJson(mockMvcGet("/api/users/1/with-cards"), new TypeReference<UserDTOWithCards>() { }));
+    }
+
+    @Benchmark
+    public UserWithCards grpcGetUserWithCards() {
+        return measure(() -> stub.getUserWithCards(GetUserRequest.newBuilder().setId(1L).build()));
+    }
+
+    @Benchmark
+    public PageDTO<UserDTO> restListUsers() {
+        return measure(() -> readJson(mockMvcGet("/api/users?page=0&size=50&sort=id&count=none"),
+                new TypeReference<PageDTO<UserDTO>>() { }));
+    }
+
+    @Benchmark
+    public List<User> grpcListUsers() {
+        return measure(() -> {
+            List<User> users = new ArrayList<>(50);
+            stub.listUsers(ListUsersRequest.newBuilder().setPageSize(50).build()).forEachRemaining(users::add);
+            return users;
+        });
+    }
+
+    private <T> T measure(Supplier<T> call) {
+        long start = THREADS.getCurrentThreadCpuTime();
+        T result = call.get();
+        cpuNanos += THREADS.getCurrentThreadCpuTime() - start;
+        calls++;
+        return result;
+    }
+
+    private byte[] mockMvcGet(String uri) {
+        try {
+            return mockMvc.perform(get(uri)).andReturn().getResponse().getContentAsByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T readJson(byte[] body, TypeReference<T> type) {
+        try {
+            return apiMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UserService stubUserService() {
+        UserService userService = mock(UserService.class, withSettings().stubOnly());
+        UserDTOWithCards userWithCards = new UserDTOWithCards();
+        userWithCards.setId(1L);
+        userWithCards.setName("Kira");
+        userWithCards.setSurname("Chang");
+        userWithCards.setEmail("kira.chang@example.com");
+        userWithCards.setBirthDate(LocalDate.of(1990, 1, 1));
+        for (long i = 0; i < 10; i++) {
+            userWithCards.getCards().add(new CardDTO(i, 1L, "123456781234567" + i, "KIRA CHANG", "12/25"));
+        }
+        List<UserDTO> users = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            users.add(new UserDTO(i, "Name" + i, "Surname" + i, LocalDate.of(1990, 1, 1).plusDays(i),
+                    "user" + i + "@example.com"));
+        }
+        when(userService.findById(anyLong())).thenReturn(Optional.of(users.get(0)));
+        when(userService.findUserWithCardsById(anyLong())).thenReturn(Optional.of(userWithCards));
+        when(userService.getAllUsers(any(), eq(CountMode.NONE)))
+                .thenReturn(new SliceImpl<>(users, PageRequest.of(0, 50), false));
+        return userService;
+    }
+
+    private static final class ByteArrayMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream stream) {
+            try {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GrpcVsRestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
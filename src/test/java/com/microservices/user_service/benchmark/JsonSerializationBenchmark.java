@@ -0,0 +1,77 @@
+package com.microservices.user_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user_service.dto.PageDTO;
+import com.microservices.user_service.dto.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serializing a page as Spring's {@code PageImpl} against the lean {@link PageDTO} envelope, both with
+ * the mapper configuration of Spring's builder.
+ * <p>
+ * Run after {@code mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt} with
+ * {@code java -cp target/test-classes:target/classes:$(cat target/cp.txt)
+ * com.microservices.user_service.benchmark.JsonSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper mapper;
+    private Page<UserDTO> page;
+    private PageDTO<UserDTO> pageDTO;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<UserDTO> users = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            users.add(new UserDTO(i, "Name" + i, "Surname" + i, LocalDate.of(1990, 1, 1).plusDays(i),
+                    "user" + i + "@example.com"));
+        }
+        page = new PageImpl<>(users, PageRequest.of(0, 50), 10_000);
+        pageDTO = PageDTO.of(page);
+    }
+
+    @Benchmark
+    public byte[] pageImpl() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] pageDto() throws Exception {
+        return mapper.writeValueAsBytes(pageDTO);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.microservices.user_service.benchmark;
+
+import com.microservices.user_service.directory.UserDirectory;
+import com.microservices.user_service.dto.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of a {@link UserDirectory} holding {@code users} synthetic users. Setup prints the mapped file
+ * size and the heap the directory takes, next to the heap of a {@code HashMap<Long, UserDTO>} and email map
+ * measured for one million users and scaled to {@code users}.
+ * <p>
+ * Run like {@link JsonSerializationBenchmark}, with {@code com.microservices.user_service.benchmark.UserDirectoryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserDirectoryBenchmark {
+    private static final int HEAP_SAMPLE = 1_000_000;
+
+    @Param({"10000000"})
+    private int users;
+
+    private Path directoryPath;
+    private UserDirectory directory;
+
+    @Setup
+    public void setUp() throws Exception {
+        long heapOfSample = heapOfHashMaps();
+        directoryPath = Files.createTempDirectory("user-directory-benchmark");
+        long heapBefore = usedHeap();
+        UserDirectory.Builder builder = UserDirectory.builder(directoryPath, 0.1);
+        for (long id = 1; id <= users; id++) {
+            builder.add(user(id));
+        }
+        directory = builder.build();
+        long heapAfter = usedHeap();
+
+        System.out.printf("%n%d users: %d MB mapped, %d MB heap; HashMap estimate %d MB heap%n", directory.size(),
+                directory.fileSize() >> 20, Math.max(0, heapAfter - heapBefore) >> 20,
+                (heapOfSample * users / HEAP_SAMPLE) >> 20);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        directory.close();
+        Files.deleteIfExists(directoryPath);
+    }
+
+    @Benchmark
+    public UserDTO findById() {
+        return directory.findById(ThreadLocalRandom.current().nextLong(1, users + 1L));
+    }
+
+    @Benchmark
+    public UserDTO findByEmail() {
+        return directory.findByEmail(email(ThreadLocalRandom.current().nextLong(1, users + 1L)));
+    }
+
+    private static long heapOfHashMaps() throws InterruptedException {
+        long before = usedHeap();
+        Map<Long, UserDTO> byId = new HashMap<>();
+        Map<String, Long> idsByEmail = new HashMap<>();
+        for (long id = 1; id <= HEAP_SAMPLE; id++) {
+            UserDTO user = user(id);
+            byId.put(id, user);
+            idsByEmail.put(user.getEmail(), id);
+        }
+        long heap = usedHeap() - before;
+        return byId.size() == idsByEmail.size() ? heap : -1;
+    }
+
+    private static UserDTO user(long id) {
+        return new UserDTO(id, "Name" + id, "Surname" + id, LocalDate.of(1970, 1, 1).plusDays(id % 20_000), email(id));
+    }
+
+    private static String email(long id) {
+        return "user" + id + "@example.com";
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserDirectoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,43 @@
+package com.microservices.user_service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheTtlPolicyTest {
+    private CacheProperties properties;
+    private CacheTtlPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheProperties();
+        properties.setDefaultTtl(Duration.ofMinutes(10));
+        properties.setNullValueTtl(Duration.ofSeconds(30));
+        properties.setTtlJitter(0.1);
+        properties.getTtl().put("usersWithCards", Duration.ofMinutes(5));
+        policy = new CacheTtlPolicy(properties);
+    }
+
+    @Test
+    void timeToLiveShouldUsePerCacheTtlWithinJitterBounds() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.timeToLive("usersWithCards", "value"))
+                    .isBetween(Duration.ofSeconds(270), Duration.ofSeconds(330));
+        }
+    }
+
+    @Test
+    void timeToLiveShouldFallBackToDefaultTtlForUnconfiguredCache() {
+        properties.setTtlJitter(0);
+
+        assertThat(policy.timeToLive("users", "value")).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void timeToLiveShouldUseNullValueTtlForNotFoundResults() {
+        assertThat(policy.timeToLive("users", null)).isEqualTo(Duration.ofSeconds(30));
+    }
+}
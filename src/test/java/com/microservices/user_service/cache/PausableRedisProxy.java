@@ -0,0 +1,115 @@
+package com.microservices.user_service.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * TCP proxy in front of a real Redis that can be paused, to test how the service behaves when Redis hangs.
+ * While paused, connections stay open but nothing is forwarded, so commands run into the client timeout.
+ * Whatever was sent during the pause is dropped, and those connections are closed on {@link #resume()},
+ * as after a failover: a command that timed out has not reached Redis.
+ */
+final class PausableRedisProxy implements AutoCloseable {
+    private final String redisHost;
+    private final int redisPort;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "redis-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;
+
+    PausableRedisProxy(String redisHost, int redisPort) throws IOException {
+        this.redisHost = redisHost;
+        this.redisPort = redisPort;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.execute(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void pause() {
+        paused = true;
+    }
+
+    void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        resume();
+        serverSocket.close();
+        sockets.forEach(PausableRedisProxy::closeQuietly);
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket redis = new Socket(redisHost, redisPort);
+                sockets.add(client);
+                sockets.add(redis);
+                executor.execute(() -> pump(client, redis));
+                executor.execute(() -> pump(redis, client));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void pump(Socket from, Socket to) {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (paused) {
+                    awaitResume();
+                    break;
+                }
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // connection closed by the other side or by close()
+        } finally {
+            sockets.remove(from);
+            sockets.remove(to);
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private void awaitResume() throws InterruptedException {
+        synchronized (pauseLock) {
+            while (paused) {
+                pauseLock.wait();
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+}
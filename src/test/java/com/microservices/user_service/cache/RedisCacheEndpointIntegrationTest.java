@@ -0,0 +1,80 @@
+package com.microservices.user_service.cache;
+
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class RedisCacheEndpointIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        redisTemplate.delete(redisTemplate.keys("users::*"));
+    }
+
+    @Test
+    void notFoundUserShouldBeCachedWithNullValueTtl() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 9999L))
+                .andExpect(status().isNotFound());
+
+        assertThat(redisTemplate.hasKey("users::9999")).isTrue();
+        assertThat(redisTemplate.getExpire("users::9999")).isBetween(1L, 30L);
+
+        mockMvc.perform(get("/api/users/{id}", 9999L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void endpointShouldReportListAndEvictCachedKeys() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/rediscaches"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.keys", is(1)))
+                .andExpect(jsonPath("$.users.estimatedMemoryBytes", greaterThan(0)))
+                .andExpect(jsonPath("$.users.ttl", is("PT10M")));
+
+        mockMvc.perform(get("/actuator/rediscaches/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys[*].key", hasItem("1")))
+                .andExpect(jsonPath("$.keys[0].ttlSeconds", greaterThan(0)));
+
+        mockMvc.perform(delete("/actuator/rediscaches/users").param("key", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.evicted", is(1)));
+
+        assertThat(redisTemplate.hasKey("users::1")).isFalse();
+    }
+
+    @Test
+    void endpointShouldRejectUnknownCache() throws Exception {
+        mockMvc.perform(get("/actuator/rediscaches/unknown"))
+                .andExpect(status().isBadRequest());
+    }
+}
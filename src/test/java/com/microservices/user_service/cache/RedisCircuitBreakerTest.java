@@ -0,0 +1,120 @@
+package com.microservices.user_service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisCircuitBreakerTest {
+    private final AtomicBoolean redisDown = new AtomicBoolean();
+    private final AtomicInteger clearAllCalls = new AtomicInteger();
+    private final AtomicInteger closedCalls = new AtomicInteger();
+
+    @Test
+    void callShouldOpenAfterConsecutiveFailuresAndSkipRedisWhileOpen() {
+        RedisCircuitBreaker breaker = breaker(2, Duration.ofMinutes(1), 10);
+        AtomicInteger redisCalls = new AtomicInteger();
+
+        assertThat(breaker.call(() -> failingCommand(redisCalls), () -> "fallback")).isEqualTo("fallback");
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(breaker.call(() -> failingCommand(redisCalls), () -> "fallback")).isEqualTo("fallback");
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        assertThat(breaker.call(() -> failingCommand(redisCalls), () -> "fallback")).isEqualTo("fallback");
+        assertThat(redisCalls).hasValue(2);
+    }
+
+    @Test
+    void failedEvictionShouldOpenAtOnceAndBeReplayedOnRecovery() {
+        RedisCircuitBreaker breaker = breaker(5, Duration.ZERO, 10);
+        List<String> evicted = new ArrayList<>();
+
+        redisDown.set(true);
+        breaker.evict(() -> evict(evicted, "users::1"));
+        breaker.evict(() -> evict(evicted, "users::2"));
+
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(breaker.getPendingEvictions()).isEqualTo(2);
+        assertThat(breaker.allowRequest()).isFalse();
+
+        redisDown.set(false);
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(evicted).containsExactly("users::1", "users::2");
+        assertThat(breaker.getPendingEvictions()).isZero();
+        assertThat(closedCalls).hasValue(1);
+    }
+
+    @Test
+    void overflowingEvictionQueueShouldClearAllCachesOnRecovery() {
+        RedisCircuitBreaker breaker = breaker(5, Duration.ZERO, 2);
+        List<String> evicted = new ArrayList<>();
+
+        redisDown.set(true);
+        for (int i = 0; i < 3; i++) {
+            String key = "users::" + i;
+            breaker.evict(() -> evict(evicted, key));
+        }
+        redisDown.set(false);
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(evicted).isEmpty();
+        assertThat(clearAllCalls).hasValue(1);
+    }
+
+    @Test
+    void evictionQueuedDuringRecoveryShouldNotBeLeftBehind() throws InterruptedException {
+        RedisCircuitBreaker breaker = breaker(5, Duration.ZERO, 10);
+        List<String> evicted = new CopyOnWriteArrayList<>();
+        Thread[] late = new Thread[1];
+
+        redisDown.set(true);
+        breaker.evict(() -> evict(evicted, "users::1"));
+        breaker.evict(() -> {
+            // Replayed during recovery: another eviction arrives, sees RECOVERING and waits for the queue.
+            late[0] = new Thread(() -> breaker.evict(() -> evict(evicted, "users::3")));
+            late[0].start();
+            while (late[0].getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            evict(evicted, "users::2");
+        });
+        redisDown.set(false);
+
+        assertThat(breaker.allowRequest()).isTrue();
+        late[0].join();
+
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(evicted).containsExactly("users::1", "users::2", "users::3");
+        assertThat(breaker.getPendingEvictions()).isZero();
+    }
+
+    private RedisCircuitBreaker breaker(int failureThreshold, Duration openDuration, int maxPendingEvictions) {
+        return new RedisCircuitBreaker(failureThreshold, openDuration, maxPendingEvictions,
+                () -> {
+                    if (redisDown.get()) {
+                        throw new QueryTimeoutException("Redis command timed out");
+                    }
+                },
+                clearAllCalls::incrementAndGet,
+                closedCalls::incrementAndGet);
+    }
+
+    private static String failingCommand(AtomicInteger calls) {
+        calls.incrementAndGet();
+        throw new QueryTimeoutException("Redis command timed out");
+    }
+
+    private void evict(List<String> evicted, String key) {
+        if (redisDown.get()) {
+            throw new QueryTimeoutException("Redis command timed out");
+        }
+        evicted.add(key);
+    }
+}
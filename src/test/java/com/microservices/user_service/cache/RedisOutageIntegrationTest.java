@@ -0,0 +1,146 @@
+package com.microservices.user_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class RedisOutageIntegrationTest extends AbstractIntegrationTest {
+    private static final Duration REDIS_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration OPEN_DURATION = Duration.ofMillis(500);
+    private static final PausableRedisProxy proxy;
+
+    static {
+        try {
+            proxy = new PausableRedisProxy("localhost", 6379);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", proxy::getPort);
+        registry.add("spring.data.redis.timeout", REDIS_TIMEOUT::toString);
+        registry.add("cache.resilience.failure-threshold", () -> 2);
+        registry.add("cache.resilience.open-duration", OPEN_DURATION::toString);
+    }
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RedisCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @AfterEach
+    void resumeRedis() throws InterruptedException {
+        proxy.resume();
+        awaitRecovery();
+    }
+
+    @AfterAll
+    static void stopProxy() throws IOException {
+        proxy.close();
+    }
+
+    @Test
+    void readsShouldFallBackToLocalCacheAndDatabaseWhileRedisHangs() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L)).andExpect(status().isOk());
+        proxy.pause();
+
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Test")));
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        long start = System.nanoTime();
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is("test.user@example.com"))))
+                .hasNoStatements();
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", 2L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Jane"))))
+                .hasSelectCount(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(REDIS_TIMEOUT);
+    }
+
+    @Test
+    void evictionsDuringOutageShouldBeReplayedOnRecovery() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Test")));
+        proxy.pause();
+
+        UserDTO update = new UserDTO(1L, "Updated", "User", LocalDate.of(1990, 1, 1), "test.user@example.com");
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(breaker.getPendingEvictions()).isPositive();
+
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Updated")));
+
+        proxy.resume();
+        awaitRecovery();
+
+        assertThat(breaker.getPendingEvictions()).isZero();
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Updated")));
+    }
+
+    /**
+     * Recovery runs on the next Redis call after the open duration; the first attempts may still fail while the
+     * client reconnects.
+     */
+    private void awaitRecovery() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!breaker.allowRequest() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,110 @@
+package com.microservices.user_service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-cards.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class BinaryContentNegotiationIntegrationTest extends AbstractIntegrationTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper cbor = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+    private final ObjectMapper smile = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void createAndUpdateUserShouldAcceptAndReturnCbor() throws Exception {
+        UserDTO user = new UserDTO(null, "Tom", "Ripley", LocalDate.of(1990, 1, 1), "tom.ripley@example.com");
+
+        byte[] created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(user)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        UserDTO saved = cbor.readValue(created, UserDTO.class);
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getBirthDate()).isEqualTo(user.getBirthDate());
+
+        saved.setName("Thomas");
+        byte[] updated = mockMvc.perform(put("/api/users/{id}", saved.getId())
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(saved)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(cbor.readValue(updated, UserDTO.class).getName()).isEqualTo("Thomas");
+    }
+
+    @Test
+    void userPageAndUserWithCardsShouldBeServedAsSmile() throws Exception {
+        byte[] page = mockMvc.perform(get("/api/users?page=0&size=10&sort=id").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode pageNode = smile.readTree(page);
+        assertThat(pageNode.get("content")).hasSize(2);
+        assertThat(pageNode.get("content").get(0).get("birthDate").asText()).isEqualTo("1990-01-01");
+        assertThat(pageNode.get("totalElements").asInt()).isEqualTo(2);
+
+        byte[] withCards = mockMvc.perform(get("/api/users/{id}/with-cards", 1L).accept(SMILE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(smile.readTree(withCards).get("cards")).hasSize(2);
+    }
+
+    @Test
+    void createCardShouldAcceptCbor() throws Exception {
+        CardDTO card = new CardDTO(null, 2L, "4000000000000002", "Jane Smith", "12/30");
+
+        byte[] created = mockMvc.perform(post("/api/card_info")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(card)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(cbor.readValue(created, CardDTO.class).getNumber()).isEqualTo(card.getNumber());
+    }
+
+    @Test
+    void jsonShouldStayTheDefault() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+}
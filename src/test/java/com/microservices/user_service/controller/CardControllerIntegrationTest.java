@@ -12,6 +12,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -45,14 +46,17 @@ class CardControllerIntegrationTest extends AbstractIntegrationTest {
 
     @Test
     void createCardShouldReturnCreatedCard() throws Exception {
-        mockMvc.perform(post("/api/card_info")
+        assertThatSql(() -> mockMvc.perform(post("/api/card_info")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(cardDTO)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.number", is(cardDTO.getNumber())))
                 .andExpect(jsonPath("$.holder", is(cardDTO.getHolder())))
                 .andExpect(jsonPath("$.expirationDate", is(cardDTO.getExpirationDate())))
-                .andExpect(jsonPath("$.id", notNullValue()));
+                .andExpect(jsonPath("$.id", notNullValue())))
+                .hasSelectCount(2)
+                .hasInsertCount(2)
+                .hasTotalCount(4);
     }
 
     @Test
@@ -61,52 +65,79 @@ class CardControllerIntegrationTest extends AbstractIntegrationTest {
         invalidCard.setNumber("123");
         invalidCard.setExpirationDate("invalid");
 
-        mockMvc.perform(post("/api/card_info")
+        assertThatSql(() -> mockMvc.perform(post("/api/card_info")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidCard)))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isBadRequest()))
+                .hasNoStatements();
     }
 
     @Test
     void getCardByIdShouldReturnCard() throws Exception {
         Long cardId = 1L;
 
-        mockMvc.perform(get("/api/card_info/{id}", cardId))
+        assertThatSql(() -> mockMvc.perform(get("/api/card_info/{id}", cardId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(cardId.intValue())))
                 .andExpect(jsonPath("$.number", is("1111222233334444")))
                 .andExpect(jsonPath("$.holder", is("Test User")))
-                .andExpect(jsonPath("$.expirationDate", is("12/25")));
+                .andExpect(jsonPath("$.expirationDate", is("12/25"))))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
     void getCardByIdWithNonExistingIdShouldReturnNotFound() throws Exception {
         Long nonExistingId = 999L;
 
-        mockMvc.perform(get("/api/card_info/{id}", nonExistingId))
-                .andExpect(status().isNotFound());
+        assertThatSql(() -> mockMvc.perform(get("/api/card_info/{id}", nonExistingId))
+                .andExpect(status().isNotFound()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
     void getAllCardsShouldReturnPaginatedCards() throws Exception {
-        mockMvc.perform(get("/api/card_info")
+        assertThatSql(() -> mockMvc.perform(get("/api/card_info")
                         .param("page", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", notNullValue()))
                 .andExpect(jsonPath("$.content.length()", is(3)))
-                .andExpect(jsonPath("$.totalElements", is(3)));
+                .andExpect(jsonPath("$.totalElements", is(3))))
+                .hasSelectCount(2)
+                .hasTotalCount(2);
+    }
+
+    @Test
+    void getAllCardsWithoutCountShouldReturnSlice() throws Exception {
+        assertThatSql(() -> mockMvc.perform(get("/api/card_info")
+                        .param("page", "1")
+                        .param("size", "2")
+                        .param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(1)))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
     void deleteCardShouldReturnNoContent() throws Exception {
         Long cardId = 1L;
 
-        mockMvc.perform(delete("/api/card_info/{id}", cardId))
-                .andExpect(status().isNoContent());
-
-        mockMvc.perform(get("/api/card_info/{id}", cardId))
-                .andExpect(status().isNotFound());
+        assertThatSql(() -> mockMvc.perform(delete("/api/card_info/{id}", cardId))
+                .andExpect(status().isNoContent()))
+                .hasSelectCount(1)
+                .hasDeleteCount(1)
+                .hasInsertCount(1)
+                .hasTotalCount(3);
+
+        assertThatSql(() -> mockMvc.perform(get("/api/card_info/{id}", cardId))
+                .andExpect(status().isNotFound()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
@@ -117,10 +148,28 @@ class CardControllerIntegrationTest extends AbstractIntegrationTest {
         cardForNonExistingUser.setExpirationDate("12/25");
         cardForNonExistingUser.setUserId(999L);
 
-        mockMvc.perform(post("/api/card_info")
+        assertThatSql(() -> mockMvc.perform(post("/api/card_info")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(cardForNonExistingUser)))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
+    }
+
+    @Test
+    void createCardWithDuplicateNumberShouldReturnConflict() throws Exception {
+        CardDTO duplicateCard = new CardDTO();
+        duplicateCard.setNumber("9999888877776666");
+        duplicateCard.setHolder("Tom Ripley");
+        duplicateCard.setExpirationDate("12/25");
+        duplicateCard.setUserId(1L);
+
+        assertThatSql(() -> mockMvc.perform(post("/api/card_info")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(duplicateCard)))
+                .andExpect(status().isConflict()))
+                .hasSelectCount(2)
+                .hasTotalCount(2);
     }
 
     @Test
@@ -131,9 +180,10 @@ class CardControllerIntegrationTest extends AbstractIntegrationTest {
         invalidCard.setExpirationDate("12/25");
         invalidCard.setUserId(1L);
 
-        mockMvc.perform(post("/api/card_info")
+        assertThatSql(() -> mockMvc.perform(post("/api/card_info")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidCard)))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isBadRequest()))
+                .hasNoStatements();
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.microservices.user_service.controller;
+
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With open-in-view off, the persistence context closes with the service transaction, so a lazy load while the
+ * response is rendered fails with {@code LazyInitializationException} instead of silently borrowing a connection.
+ * These requests render every entity association the API exposes.
+ */
+@Sql(scripts = {"classpath:sql_scripts/insert-users.sql", "classpath:sql_scripts/insert-cards.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class OpenInViewDisabledIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        redisTemplate.delete(redisTemplate.keys("users*"));
+    }
+
+    @Test
+    void entityManagerShouldNotBeOpenedPerRequest() {
+        assertThat(webApplicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    void responsesShouldRenderFromInitializedDtos() throws Exception {
+        mockMvc.perform(get("/api/users/{id}/with-cards", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()", is(2)));
+        mockMvc.perform(get("/api/card_info/{id}", 3L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId", is(2)));
+        mockMvc.perform(get("/api/card_info?page=0&size=10&sort=id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[2].userId", is(2)));
+        mockMvc.perform(get("/api/users?page=0&size=10&sort=id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(2)));
+    }
+
+    @Test
+    void connectionHoldTimeShouldBeRecordedPerHandler() throws Exception {
+        mockMvc.perform(get("/api/card_info/{id}", 1L)).andExpect(status().isOk());
+
+        Timer hold = meterRegistry.get("db.connection.hold")
+                .tag("handler", "CardController.getCardById")
+                .timer();
+        assertThat(hold.count()).isPositive();
+        assertThat(meterRegistry.find("hikaricp.connections.usage").timer()).isNotNull();
+    }
+}
@@ -0,0 +1,119 @@
+package com.microservices.user_service.controller;
+
+import com.microservices.user_service.config.ReactiveApiServer;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-cards.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = {"reactive-api.enabled=true", "reactive-api.port=0"})
+class ReactiveReadApiIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveApiServer.getPort())
+                .build();
+    }
+
+    @Test
+    void getUserByIdShouldReturnUser() {
+        webTestClient.get().uri("/api/reactive/users/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").isEqualTo("Test")
+                .jsonPath("$.birthDate").isEqualTo("1990-01-01")
+                .jsonPath("$.email").isEqualTo("test.user@example.com");
+    }
+
+    @Test
+    void getUserByIdWithNonExistingIdShouldReturnNotFound() {
+        webTestClient.get().uri("/api/reactive/users/{id}", 999)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getUserByEmailShouldReturnUser() {
+        webTestClient.get().uri("/api/reactive/users/email/{email}", "jane.smith@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(2);
+    }
+
+    @Test
+    void getAllUsersShouldReturnPaginatedUsers() {
+        webTestClient.get().uri("/api/reactive/users?page=0&size=10&sort=email,desc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.totalElements").isEqualTo(2);
+    }
+
+    @Test
+    void getAllUsersShouldAssembleCachedPageAndLoadEvictedUsers() {
+        String uri = "/api/reactive/users?page=0&size=10&sort=id";
+        webTestClient.get().uri(uri)
+                .exchange()
+                .expectStatus().isOk();
+        redisTemplate.delete("users::1");
+
+        webTestClient.get().uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].id").isEqualTo(1)
+                .jsonPath("$.content[0].name").isEqualTo("Test")
+                .jsonPath("$.content[1].id").isEqualTo(2)
+                .jsonPath("$.totalElements").isEqualTo(2);
+    }
+
+    @Test
+    void getAllUsersWithUnknownSortShouldReturnBadRequest() {
+        webTestClient.get().uri("/api/reactive/users?sort=password")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getCardByIdShouldReturnCard() {
+        webTestClient.get().uri("/api/reactive/card_info/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.userId").isEqualTo(1)
+                .jsonPath("$.number").isEqualTo("1111222233334444");
+    }
+
+    @Test
+    void getCardByIdOfDeletedUserShouldReturnNotFound() {
+        jdbcTemplate.update("UPDATE users SET deleted_at = now() WHERE id = 1");
+
+        webTestClient.get().uri("/api/reactive/card_info/{id}", 1)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -15,8 +15,10 @@ import org.springframework.web.context.WebApplicationContext;
 
 import java.time.LocalDate;
 
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -50,14 +52,17 @@ class UserControllerIntegrationTest extends AbstractIntegrationTest {
 
     @Test
     void createUserShouldReturnCreatedUser() throws Exception {
-        mockMvc.perform(post("/api/users")
+        assertThatSql(() -> mockMvc.perform(post("/api/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userDTO)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.name", is(userDTO.getName())))
                 .andExpect(jsonPath("$.surname", is(userDTO.getSurname())))
                 .andExpect(jsonPath("$.email", is(userDTO.getEmail())))
-                .andExpect(jsonPath("$.id", notNullValue()));
+                .andExpect(jsonPath("$.id", notNullValue())))
+                .hasSelectCount(1)
+                .hasInsertCount(1)
+                .hasTotalCount(2);
     }
 
     @Test
@@ -67,70 +72,136 @@ class UserControllerIntegrationTest extends AbstractIntegrationTest {
         invalidUser.setEmail("invalid-email");
         invalidUser.setBirthDate(LocalDate.now().plusDays(1));
 
-        mockMvc.perform(post("/api/users")
+        assertThatSql(() -> mockMvc.perform(post("/api/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidUser)))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isBadRequest()))
+                .hasNoStatements();
     }
 
     @Test
     void getUserByIdShouldReturnUser() throws Exception {
         Long userId = 1L;
 
-        mockMvc.perform(get("/api/users/{id}", userId))
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", userId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(userId.intValue())))
                 .andExpect(jsonPath("$.name", is("Test")))
                 .andExpect(jsonPath("$.surname", is("User")))
-                .andExpect(jsonPath("$.email", is("test.user@example.com")));
+                .andExpect(jsonPath("$.email", is("test.user@example.com")))
+                .andExpect(jsonPath("$.birthDate", is("1990-01-01"))))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
     void getUserByIdWithNonExistingIdShouldReturnNotFound() throws Exception {
         Long nonExistingId = 999L;
 
-        mockMvc.perform(get("/api/users/{id}", nonExistingId))
-                .andExpect(status().isNotFound());
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", nonExistingId))
+                .andExpect(status().isNotFound()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
     void getUserWithCardsByIdShouldReturnUserWithCards() throws Exception {
         Long userId = 1L;
 
-        mockMvc.perform(get("/api/users/{id}/with-cards", userId))
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}/with-cards", userId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(userId.intValue())))
                 .andExpect(jsonPath("$.name", is("Test")))
                 .andExpect(jsonPath("$.cards", notNullValue()))
-                .andExpect(jsonPath("$.cards.length()", is(2)));
+                .andExpect(jsonPath("$.cards.length()", is(2))))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
     void getAllUsersShouldReturnPaginatedUsers() throws Exception {
-        mockMvc.perform(get("/api/users")
+        assertThatSql(() -> mockMvc.perform(get("/api/users")
                         .param("page", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", notNullValue()))
                 .andExpect(jsonPath("$.content.length()", is(2)))
-                .andExpect(jsonPath("$.totalElements", is(2)));
+                .andExpect(jsonPath("$.totalElements", is(2)))
+                .andExpect(jsonPath("$.totalPages", is(1)))
+                .andExpect(jsonPath("$.numberOfElements", is(2)))
+                .andExpect(jsonPath("$.first", is(true)))
+                .andExpect(jsonPath("$.last", is(true)))
+                .andExpect(jsonPath("$.empty", is(false)))
+                .andExpect(jsonPath("$.pageable").doesNotExist()))
+                .hasSelectCount(2)
+                .hasTotalCount(2);
     }
 
     @Test
     void getUserByEmailShouldReturnUser() throws Exception {
         String email = "test.user@example.com";
 
-        mockMvc.perform(get("/api/users/email/{email}", email))
+        assertThatSql(() -> mockMvc.perform(get("/api/users/email/{email}", email))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.email", is(email)));
+                .andExpect(jsonPath("$.email", is(email))))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
+    }
+
+    @Test
+    void getUserByEmailShouldIgnoreCaseAndServeRepeatsFromCache() throws Exception {
+        assertThatSql(() -> mockMvc.perform(get("/api/users/email/{email}", "Test.User@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1))))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
+
+        assertThatSql(() -> mockMvc.perform(get("/api/users/email/{email}", "test.user@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is("test.user@example.com"))))
+                .hasNoStatements();
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk()))
+                .hasNoStatements();
+    }
+
+    @Test
+    void updateEmailShouldInvalidateCachedEmailLookups() throws Exception {
+        mockMvc.perform(get("/api/users/email/{email}", "test.user@example.com"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/email/{email}", "tom.ripley@example.com"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDTO)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/email/{email}", "test.user@example.com"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/email/{email}", "Tom.Ripley@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Tom")));
+    }
+
+    @Test
+    void createUserWithEmailDifferingOnlyInCaseShouldReturnConflict() throws Exception {
+        userDTO.setEmail("TEST.USER@example.com");
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDTO)))
+                .andExpect(status().isConflict());
     }
 
     @Test
     void getUserByEmailWithNonExistingEmailShouldReturnNotFound() throws Exception {
         String nonExistingEmail = "nonexisting@example.com";
 
-        mockMvc.perform(get("/api/users/email/{email}", nonExistingEmail))
-                .andExpect(status().isNotFound());
+        assertThatSql(() -> mockMvc.perform(get("/api/users/email/{email}", nonExistingEmail))
+                .andExpect(status().isNotFound()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
@@ -142,24 +213,31 @@ class UserControllerIntegrationTest extends AbstractIntegrationTest {
         updatedUser.setEmail("updated@example.com");
         updatedUser.setBirthDate(LocalDate.of(1995, 5, 5));
 
-        mockMvc.perform(put("/api/users/{id}", userId)
+        assertThatSql(() -> mockMvc.perform(put("/api/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updatedUser)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("Updated")))
                 .andExpect(jsonPath("$.surname", is("Name")))
-                .andExpect(jsonPath("$.email", is("updated@example.com")));
+                .andExpect(jsonPath("$.email", is("updated@example.com"))))
+                .hasSelectCount(2)
+                .hasUpdateCount(1)
+                .hasTotalCount(3);
     }
 
     @Test
     void deleteUserShouldReturnNoContent() throws Exception {
         Long userId = 1L;
 
-        mockMvc.perform(delete("/api/users/{id}", userId))
-                .andExpect(status().isNoContent());
+        assertThatSql(() -> mockMvc.perform(delete("/api/users/{id}", userId))
+                .andExpect(status().isNoContent()))
+                .hasDeleteCount(1)
+                .hasTotalCount(1);
 
-        mockMvc.perform(get("/api/users/{id}", userId))
-                .andExpect(status().isNotFound());
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", userId))
+                .andExpect(status().isNotFound()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
     }
 
     @Test
@@ -170,9 +248,67 @@ class UserControllerIntegrationTest extends AbstractIntegrationTest {
         duplicateUser.setEmail("test.user@example.com");
         duplicateUser.setBirthDate(LocalDate.of(1990, 1, 1));
 
-        mockMvc.perform(post("/api/users")
+        assertThatSql(() -> mockMvc.perform(post("/api/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(duplicateUser)))
-                .andExpect(status().isConflict()); // Меняем с 400 на 409
+                .andExpect(status().isConflict())) // Меняем с 400 на 409
+                .hasSelectCount(1)
+                .hasTotalCount(1);
+    }
+
+    @Test
+    void getAllUsersShouldReflectUpdateOfUserOnCachedPage() throws Exception {
+        assertThatSql(() -> mockMvc.perform(get("/api/users?page=0&size=10&sort=id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is("Test"))))
+                .hasSelectCount(2)
+                .hasTotalCount(2);
+
+        userDTO.setEmail("test.user@example.com");
+        assertThatSql(() -> mockMvc.perform(put("/api/users/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDTO)))
+                .andExpect(status().isOk()))
+                .hasSelectCount(1)
+                .hasUpdateCount(1)
+                .hasTotalCount(2);
+
+        assertThatSql(() -> mockMvc.perform(get("/api/users?page=0&size=10&sort=id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is("Tom")))
+                .andExpect(jsonPath("$.content[1].id", is(2)))
+                .andExpect(jsonPath("$.totalElements", is(2))))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
+    }
+
+    @Test
+    void getAllUsersWithoutCountShouldReturnSlice() throws Exception {
+        assertThatSql(() -> mockMvc.perform(get("/api/users")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist()))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
+    }
+
+    @Test
+    void getAllUsersWithEstimatedCountShouldReturnTotal() throws Exception {
+        assertThatSql(() -> mockMvc.perform(get("/api/users")
+                        .param("page", "0")
+                        .param("size", "10")
+                        .param("count", "estimated"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(2)))
+                .andExpect(jsonPath("$.totalElements", greaterThanOrEqualTo(2))))
+                .hasSelectCountAtMost(3)
+                .hasInsertCount(0)
+                .hasUpdateCount(0)
+                .hasDeleteCount(0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.microservices.user_service.controller;
+
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-cards.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class UserDeleteStatementCountIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void deleteUserWithCardsShouldIssueSingleStatement() throws Exception {
+        mockMvc.perform(get("/api/users/email/{email}", "test.user@example.com"))
+                .andExpect(status().isOk());
+
+        assertThatSql(() -> mockMvc.perform(delete("/api/users/{id}", 1L))
+                .andExpect(status().isNoContent()))
+                .hasDeleteCount(1)
+                .hasTotalCount(1);
+
+        mockMvc.perform(get("/api/card_info/{id}", 1L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/email/{email}", "test.user@example.com"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteNonExistingUserShouldIssueSingleStatement() throws Exception {
+        assertThatSql(() -> mockMvc.perform(delete("/api/users/{id}", 999L))
+                .andExpect(status().isNotFound()))
+                .hasDeleteCount(1)
+                .hasTotalCount(1);
+    }
+
+    @Test
+    void bulkDeleteShouldIssueSingleStatementAndEvictCachedUsers() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}/with-cards", 2L))
+                .andExpect(status().isOk());
+
+        assertThatSql(() -> mockMvc.perform(post("/api/users/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [1, 2, 999]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", containsInAnyOrder(1, 2)))
+                .andExpect(jsonPath("$.notFound", contains(999))))
+                .hasDeleteCount(1)
+                .hasTotalCount(1);
+
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/{id}/with-cards", 2L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void bulkDeleteWithEmptyIdsShouldReturnBadRequest() throws Exception {
+        assertThatSql(() -> mockMvc.perform(post("/api/users/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest()))
+                .hasNoStatements();
+    }
+}
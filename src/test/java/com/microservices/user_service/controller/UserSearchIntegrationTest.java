@@ -0,0 +1,126 @@
+package com.microservices.user_service.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-search-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = "user-search.max-candidates=4")
+class UserSearchIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void searchShouldRankExactThenPrefixThenContainedMatches() throws Exception {
+        assertThatSql(() -> mockMvc.perform(get("/api/users/search?q=Smith"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[*].id", contains(2, 5, 3, 4)))
+                        .andExpect(jsonPath("$.truncated", is(false)))
+                        .andExpect(jsonPath("$.next").doesNotExist()))
+                .hasSelectCount(2)
+                .hasTotalCount(3);
+    }
+
+    @Test
+    void searchShouldContinueFromCursor() throws Exception {
+        String body = mockMvc.perform(get("/api/users/search?q=smith&size=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(2, 5, 3)))
+                .andReturn().getResponse().getContentAsString();
+        String next = JsonPath.read(body, "$.next");
+
+        mockMvc.perform(get("/api/users/search?q=smith&size=3&cursor={cursor}", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(4)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void searchShouldMatchEmailIgnoringCaseAndTreatWildcardsLiterally() throws Exception {
+        mockMvc.perform(get("/api/users/search?q= ANNA.G@ "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].email", contains("anna.g@example.com")));
+        mockMvc.perform(get("/api/users/search?q=a_n%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", empty()));
+    }
+
+    @Test
+    void repeatedSearchShouldBeServedFromCacheWithoutDeletedUsers() throws Exception {
+        mockMvc.perform(get("/api/users/search?q=smith")).andExpect(status().isOk());
+
+        assertThatSql(() -> mockMvc.perform(get("/api/users/search?q=smith"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[*].id", contains(2, 5, 3, 4))))
+                .hasNoStatements();
+
+        mockMvc.perform(delete("/api/users/{id}", 5L)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/search?q=smith"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(2, 3, 4)));
+    }
+
+    @Test
+    void truncatedSearchShouldKeepExactMatchAndLowestIds() throws Exception {
+        String body = mockMvc.perform(get("/api/users/search?q=lee&size=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(11, 6, 7)))
+                .andExpect(jsonPath("$.truncated", is(true)))
+                .andReturn().getResponse().getContentAsString();
+        String next = JsonPath.read(body, "$.next");
+
+        mockMvc.perform(get("/api/users/search?q=lee&size=3&cursor={cursor}", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(8, 9)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void misspelledSearchShouldFindSimilarNames() throws Exception {
+        mockMvc.perform(get("/api/users/search?q=smyth"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(2, 5)))
+                .andExpect(jsonPath("$.truncated", is(false)));
+    }
+
+    @Test
+    void broadSearchShouldBeTruncated() throws Exception {
+        mockMvc.perform(get("/api/users/search?q=example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.truncated", is(true)));
+    }
+
+    @Test
+    void invalidSearchShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/search?q=sm")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/search")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/search?q=smith&size=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/search?q=smith&cursor=next")).andExpect(status().isBadRequest());
+    }
+}
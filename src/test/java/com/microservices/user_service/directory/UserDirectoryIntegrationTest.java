@@ -0,0 +1,109 @@
+package com.microservices.user_service.directory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = {"user-directory.enabled=true", "user-directory.rebuild-interval=1h"})
+class UserDirectoryIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserDirectoryService userDirectory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        objectMapper.registerModule(new JavaTimeModule());
+        userDirectory.rebuild();
+    }
+
+    @Test
+    void lookupsShouldBeServedFromDirectoryWithoutQueries() {
+        assertThat(userDirectory.size()).isEqualTo(2);
+
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Test"))))
+                .hasNoStatements();
+        assertThatSql(() -> mockMvc.perform(get("/api/users/email/{email}", "JANE.SMITH@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(2))))
+                .hasNoStatements();
+        assertThatSql(() -> mockMvc.perform(get("/api/users?page=0&size=10&sort=id&count=none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[1].name", is("Jane"))))
+                .hasSelectCount(1);
+    }
+
+    @Test
+    void writesShouldBeAppliedToDirectory() throws Exception {
+        UserDTO update = new UserDTO(1L, "Updated", "User", LocalDate.of(1990, 1, 1), "updated@example.com");
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        assertThatSql(() -> mockMvc.perform(get("/api/users/email/{email}", "updated@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Updated"))))
+                .hasNoStatements();
+        assertThat(userDirectory.findByEmail("test.user@example.com")).isNull();
+
+        mockMvc.perform(delete("/api/users/{id}", 2L)).andExpect(status().isNoContent());
+
+        assertThat(userDirectory.findById(2L)).isNull();
+        mockMvc.perform(get("/api/users/{id}", 2L)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void changesAnnouncedByOtherInstancesShouldBeReadFromDatabase() throws Exception {
+        jdbcTemplate.update("UPDATE users SET name = 'Renamed' WHERE id = 1");
+
+        redisTemplate.convertAndSend(UserDirectoryService.CHANGES_CHANNEL, "other-instance:1");
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!"Renamed".equals(userDirectory.findById(1L).getName()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(userDirectory.findById(1L).getName()).isEqualTo("Renamed");
+    }
+}
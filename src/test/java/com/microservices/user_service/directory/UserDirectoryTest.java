@@ -0,0 +1,137 @@
+package com.microservices.user_service.directory;
+
+import com.microservices.user_service.dto.UserDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDirectoryTest {
+
+    @TempDir
+    Path directoryPath;
+
+    private UserDirectory directory;
+
+    @AfterEach
+    void tearDown() {
+        if (directory != null) {
+            directory.close();
+        }
+    }
+
+    @Test
+    void buildShouldIndexUsersByIdAndNormalizedEmail() {
+        directory = UserDirectory.builder(directoryPath, 0.1)
+                .add(user(1L, "Kira", "Kira.Chang@Example.com"))
+                .add(new UserDTO(2L, "Jäne", null, null, "jane@example.com"))
+                .build();
+
+        assertThat(directory.size()).isEqualTo(2);
+        assertThat(directory.findById(1L)).isEqualTo(user(1L, "Kira", "Kira.Chang@Example.com"));
+        assertThat(directory.findById(2L)).isEqualTo(new UserDTO(2L, "Jäne", null, null, "jane@example.com"));
+        assertThat(directory.findById(3L)).isNull();
+        assertThat(directory.findByEmail("kira.chang@example.com").getId()).isEqualTo(1L);
+        assertThat(directory.findByEmail("nobody@example.com")).isNull();
+    }
+
+    @Test
+    void putShouldReplaceUserAndMoveEmail() {
+        directory = UserDirectory.builder(directoryPath, 0.1)
+                .add(user(1L, "Kira", "kira@example.com"))
+                .build();
+
+        assertThat(directory.put(user(1L, "Kira Updated", "kira@example.com"))).isTrue();
+        assertThat(directory.findByEmail("kira@example.com").getName()).isEqualTo("Kira Updated");
+
+        assertThat(directory.put(user(1L, "Kira Updated", "kira.chang@example.com"))).isTrue();
+        assertThat(directory.findByEmail("kira@example.com")).isNull();
+        assertThat(directory.findByEmail("kira.chang@example.com").getId()).isEqualTo(1L);
+        assertThat(directory.findById(1L).getEmail()).isEqualTo("kira.chang@example.com");
+
+        assertThat(directory.put(user(2L, "Jane", "kira@example.com"))).isTrue();
+        assertThat(directory.findByEmail("kira@example.com").getId()).isEqualTo(2L);
+        assertThat(directory.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removeShouldDropIdAndEmail() {
+        directory = UserDirectory.builder(directoryPath, 0.1)
+                .add(user(1L, "Kira", "kira@example.com"))
+                .add(user(2L, "Jane", "jane@example.com"))
+                .build();
+
+        directory.remove(1L);
+        directory.remove(3L);
+
+        assertThat(directory.findById(1L)).isNull();
+        assertThat(directory.findByEmail("kira@example.com")).isNull();
+        assertThat(directory.findById(2L)).isNotNull();
+        assertThat(directory.size()).isEqualTo(1);
+    }
+
+    @Test
+    void putShouldRefuseOnceIndexesAreFull() {
+        directory = UserDirectory.builder(directoryPath, 0.1).build();
+
+        long added = 0;
+        while (directory.put(user(added + 1, "User", "user" + (added + 1) + "@example.com"))) {
+            added++;
+        }
+
+        assertThat(added).isPositive();
+        assertThat(directory.size()).isEqualTo(added);
+        assertThat(directory.findById(added)).isNotNull();
+        assertThat(directory.findById(added + 1)).isNull();
+    }
+
+    @Test
+    void removedSlotsShouldBeReused() {
+        directory = UserDirectory.builder(directoryPath, 0.1).add(user(1L, "Kira", "kira@example.com")).build();
+
+        for (long id = 2; id < 5000; id++) {
+            assertThat(directory.put(user(id, "User", "user" + id + "@example.com"))).isTrue();
+            assertThat(directory.put(user(1L, "Kira", "kira" + id + "@example.com"))).isTrue();
+            directory.remove(id);
+        }
+
+        assertThat(directory.size()).isEqualTo(1);
+        assertThat(directory.findById(4999L)).isNull();
+        assertThat(directory.findByEmail("user4999@example.com")).isNull();
+        assertThat(directory.findByEmail("kira4999@example.com").getId()).isEqualTo(1L);
+        assertThat(directory.findByEmail("kira4998@example.com")).isNull();
+    }
+
+    @Test
+    void closeShouldWaitForRunningCalls() throws Exception {
+        directory = UserDirectory.builder(directoryPath, 0.1).add(user(1L, "Kira", "kira@example.com")).build();
+        assertThat(directory.retain()).isTrue();
+
+        directory.close();
+
+        assertThat(Files.list(directoryPath)).hasSize(1);
+        assertThat(directory.findById(1L)).isNull();
+        directory.release();
+        assertThat(Files.list(directoryPath)).isEmpty();
+    }
+
+    @Test
+    void closeShouldDeleteFile() throws Exception {
+        directory = UserDirectory.builder(directoryPath, 0.1).add(user(1L, "Kira", "kira@example.com")).build();
+        assertThat(Files.list(directoryPath)).hasSize(1);
+
+        directory.close();
+        directory = null;
+
+        assertThat(Files.list(directoryPath)).isEmpty();
+    }
+
+    private static UserDTO user(long id, String name, String email) {
+        return new UserDTO(id, name, "Chang", LocalDate.of(1990, 1, 1), email);
+    }
+}
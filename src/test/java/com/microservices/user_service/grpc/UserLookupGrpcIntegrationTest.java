@@ -0,0 +1,108 @@
+package com.microservices.user_service.grpc;
+
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.config.GrpcServer;
+import com.microservices.user_service.grpc.v1.BatchGetUsersRequest;
+import com.microservices.user_service.grpc.v1.BatchGetUsersResponse;
+import com.microservices.user_service.grpc.v1.GetUserRequest;
+import com.microservices.user_service.grpc.v1.ListUsersRequest;
+import com.microservices.user_service.grpc.v1.User;
+import com.microservices.user_service.grpc.v1.UserLookupGrpc;
+import com.microservices.user_service.grpc.v1.UserWithCards;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-cards.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = {"grpc.enabled=true", "grpc.port=0"})
+class UserLookupGrpcIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private GrpcServer grpcServer;
+
+    @Autowired
+    private UserPageCache userPageCache;
+
+    private ManagedChannel channel;
+    private UserLookupGrpc.UserLookupBlockingStub stub;
+
+    @BeforeEach
+    void setUp() {
+        channel = NettyChannelBuilder.forAddress("localhost", grpcServer.getPort())
+                .usePlaintext()
+                .build();
+        stub = UserLookupGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void getUserShouldReturnUserAndServeRepeatsFromCache() {
+        User user = stub.getUser(GetUserRequest.newBuilder().setId(1L).build());
+
+        assertThat(user.getName()).isEqualTo("Test");
+        assertThat(user.getEmail()).isEqualTo("test.user@example.com");
+        assertThat(user.getBirthDate()).isEqualTo("1990-01-01");
+        assertThatSql(() -> stub.getUser(GetUserRequest.newBuilder().setId(1L).build()))
+                .hasNoStatements();
+    }
+
+    @Test
+    void getUserWithNonExistingIdShouldReturnNotFound() {
+        assertThatThrownBy(() -> stub.getUser(GetUserRequest.newBuilder().setId(999L).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(e -> ((StatusRuntimeException) e).getStatus().getCode())
+                .isEqualTo(Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void batchGetUsersShouldReportMissingIds() {
+        BatchGetUsersResponse response = stub.batchGetUsers(BatchGetUsersRequest.newBuilder()
+                .addAllIds(List.of(2L, 999L, 1L))
+                .build());
+
+        assertThat(response.getUsersList()).extracting(User::getId).containsExactly(2L, 1L);
+        assertThat(response.getNotFoundList()).containsExactly(999L);
+    }
+
+    @Test
+    void getUserWithCardsShouldReturnCards() {
+        UserWithCards user = stub.getUserWithCards(GetUserRequest.newBuilder().setId(1L).build());
+
+        assertThat(user.getUser().getId()).isEqualTo(1L);
+        assertThat(user.getCardsList()).hasSize(2);
+    }
+
+    @Test
+    void listUsersShouldStreamAllPages() {
+        List<Long> ids = new ArrayList<>();
+        stub.listUsers(ListUsersRequest.newBuilder().setPageSize(1).build())
+                .forEachRemaining(user -> ids.add(user.getId()));
+
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(userPageCache.getIds(PageRequest.of(0, 1, Sort.by("id")))).isNull();
+    }
+}
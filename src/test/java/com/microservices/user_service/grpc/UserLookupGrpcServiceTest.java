@@ -0,0 +1,85 @@
+package com.microservices.user_service.grpc;
+
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.grpc.v1.ListUsersRequest;
+import com.microservices.user_service.grpc.v1.User;
+import com.microservices.user_service.service.UserService;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserLookupGrpcServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ServerCallStreamObserver<User> observer;
+
+    @Test
+    void listUsersShouldPauseWhileClientIsNotReady() {
+        when(userService.findAllAfter(0L, 2)).thenReturn(List.of(user(1L), user(2L)));
+        when(userService.findAllAfter(2L, 2)).thenReturn(List.of(user(3L)));
+        Runnable onReady = start(2);
+
+        when(observer.isReady()).thenReturn(true, true, true, false);
+        onReady.run();
+
+        verify(observer, times(2)).onNext(any());
+        verify(userService, never()).findAllAfter(2L, 2);
+
+        when(observer.isReady()).thenReturn(true);
+        onReady.run();
+
+        verify(observer, times(3)).onNext(any());
+        verify(observer).onCompleted();
+    }
+
+    @Test
+    void listUsersShouldStopWhenCancelled() {
+        when(userService.findAllAfter(0L, 1)).thenReturn(List.of(user(1L)));
+        ArgumentCaptor<Runnable> onCancel = ArgumentCaptor.forClass(Runnable.class);
+        Runnable onReady = start(1);
+        verify(observer).setOnCancelHandler(onCancel.capture());
+
+        when(observer.isReady()).thenReturn(true, true, false);
+        onReady.run();
+        onCancel.getValue().run();
+        onReady.run();
+
+        verify(observer).onNext(any());
+        verify(userService, never()).findAllAfter(1L, 1);
+        verify(observer, never()).onCompleted();
+    }
+
+    private Runnable start(int pageSize) {
+        new UserLookupGrpcService(userService)
+                .listUsers(ListUsersRequest.newBuilder().setPageSize(pageSize).build(), observer);
+        ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+        verify(observer).setOnReadyHandler(onReady.capture());
+        return onReady.getValue();
+    }
+
+    private static UserDTO user(Long id) {
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        user.setName("User");
+        user.setSurname("Number" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
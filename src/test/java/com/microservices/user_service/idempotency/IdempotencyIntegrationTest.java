@@ -0,0 +1,213 @@
+package com.microservices.user_service.idempotency;
+
+import com.microservices.user_service.cache.RedisCircuitBreaker;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import com.microservices.user_service.repository.UserRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class IdempotencyIntegrationTest extends AbstractIntegrationTest {
+    private static final String USER = """
+            {"name": "Tom", "surname": "Ripley", "email": "tom.ripley@example.com", "birthDate": "1990-01-01"}""";
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedisTemplate<String, Object> cacheRedisTemplate;
+
+    @Autowired
+    private RedisCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(idempotencyFilter)
+                .build();
+    }
+
+    @Test
+    void retryShouldReplayResponseWithoutTouchingDatabase() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String first = createUser(key, USER).getContentAsString();
+
+        assertThatSql(() -> assertThat(mockMvc.perform(post("/api/users")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(USER))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"))
+                .andReturn().getResponse().getContentAsString()).isEqualTo(first))
+                .hasNoStatements();
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void reusedKeyWithDifferentBodyShouldBeRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        createUser(key, USER);
+
+        mockMvc.perform(post("/api/users")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(USER.replace("Tom", "Thomas")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void duplicateEmailRetryShouldRunAgainAndReturnErrorBody() throws Exception {
+        createUser(UUID.randomUUID().toString(), USER);
+        WebTestClient client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+        String key = UUID.randomUUID().toString();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            client.post().uri("/api/users")
+                    .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(USER)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                    .expectHeader().doesNotExist(IdempotencyFilter.REPLAYED)
+                    .expectBody()
+                    .jsonPath("$.status").isEqualTo(409)
+                    .jsonPath("$.error").isEqualTo("Conflict")
+                    .jsonPath("$.path").isEqualTo("/api/users");
+        }
+        assertThat(cacheRedisTemplate.keys("idempotency::*" + key)).isEmpty();
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void sameKeyFromAnotherClientShouldRunAgain() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/users")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .header("X-Client-Id", "client-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(USER))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/users")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .header("X-Client-Id", "client-b")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(USER.replace("tom.ripley", "tom.ripley.b")))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED));
+        assertThat(userRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void slowRequestShouldKeepItsKeyPastInFlightTtl() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(cacheRedisTemplate, breaker, List.of("/api/slow"),
+                Duration.ofMinutes(1), Duration.ofMillis(300), Duration.ofSeconds(5), "X-Client-Id");
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        FilterChain slowChain = (request, response) -> {
+            executions.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_CREATED);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> perform(filter, key, slowChain));
+            Thread.sleep(700);
+            MockHttpServletResponse retry = perform(filter, key, slowChain);
+
+            assertThat(first.get().getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+            assertThat(retry.getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+            assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+            filter.destroy();
+        }
+    }
+
+    private static MockHttpServletResponse perform(IdempotencyFilter filter, String key, FilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/slow");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        request.setContent(USER.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void concurrentDuplicatesShouldShareOneExecution() throws Exception {
+        String key = UUID.randomUUID().toString();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<MockHttpServletResponse>> requests = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                requests.add(() -> createUser(key, USER));
+            }
+            List<String> bodies = new ArrayList<>();
+            for (Future<MockHttpServletResponse> response : executor.invokeAll(requests)) {
+                bodies.add(response.get().getContentAsString());
+            }
+
+            assertThat(bodies).allMatch(body -> body.equals(bodies.get(0)));
+            assertThat(userRepository.count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse createUser(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/users")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+    }
+}
@@ -0,0 +1,79 @@
+package com.microservices.user_service.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void tryAcquireShouldRejectOnceLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.2, 1000);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInflight()).isEqualTo(2);
+        assertThat(limiter.getRejections()).isEqualTo(1);
+
+        limiter.release(BASELINE_RTT, false);
+
+        assertThat(limiter.getInflight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void limitShouldGrowWhileLatencyStaysAtBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 1.0, 1000);
+
+        runRounds(limiter, 5, BASELINE_RTT, false);
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void limitShouldShrinkWhenLatencyInflates() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 2, 100, 1.0, 1000);
+        runRounds(limiter, 1, BASELINE_RTT, false);
+        int limitAtBaseline = limiter.getLimit();
+
+        runRounds(limiter, 5, BASELINE_RTT * 10, false);
+
+        assertThat(limiter.getLimit()).isLessThan(limitAtBaseline);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void limitShouldShrinkOnDroppedCalls() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 1.0, 1000);
+        limiter.tryAcquire();
+        limiter.release(BASELINE_RTT, false);
+
+        runRounds(limiter, 3, BASELINE_RTT, true);
+
+        assertThat(limiter.getLimit()).isLessThan(20);
+    }
+
+    @Test
+    void constructorShouldRejectInconsistentLimits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(1, 2, 10, 0.2, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void runRounds(AdaptiveConcurrencyLimiter limiter, int rounds, long rttNanos, boolean dropped) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos, dropped);
+            }
+        }
+    }
+}
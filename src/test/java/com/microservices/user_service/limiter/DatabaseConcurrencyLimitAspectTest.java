@@ -0,0 +1,97 @@
+package com.microservices.user_service.limiter;
+
+import com.microservices.user_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatabaseConcurrencyLimitAspectTest {
+    private AdaptiveConcurrencyLimiter readLimiter;
+    private AdaptiveConcurrencyLimiter writeLimiter;
+    private DatabaseConcurrencyLimitAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        readLimiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.2, 1000);
+        writeLimiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.2, 1000);
+        aspect = new DatabaseConcurrencyLimitAspect(readLimiter, writeLimiter, 1, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void nestedTransactionalCallShouldRunOnOuterPermit() throws Throwable {
+        AtomicInteger readInflight = new AtomicInteger(-1);
+        AtomicInteger writeInflight = new AtomicInteger(-1);
+        ProceedingJoinPoint inner = joinPoint("write", () -> {
+            readInflight.set(readLimiter.getInflight());
+            writeInflight.set(writeLimiter.getInflight());
+            return "inner";
+        });
+        ProceedingJoinPoint outer = joinPoint("read", () -> aspect.limit(inner));
+
+        assertThat(aspect.limit(outer)).isEqualTo("inner");
+
+        assertThat(readInflight).hasValue(1);
+        assertThat(writeInflight).hasValue(0);
+        assertThat(readLimiter.getInflight()).isZero();
+        assertThat(readLimiter.getRejections()).isZero();
+        assertThat(writeLimiter.getRejections()).isZero();
+    }
+
+    @Test
+    void nextCallShouldAcquireAgainAfterOuterCallFailed() throws Throwable {
+        ProceedingJoinPoint failing = joinPoint("write", () -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThatThrownBy(() -> aspect.limit(failing)).isInstanceOf(IllegalStateException.class);
+
+        AtomicInteger inflight = new AtomicInteger(-1);
+        aspect.limit(joinPoint("write", () -> {
+            inflight.set(writeLimiter.getInflight());
+            return null;
+        }));
+
+        assertThat(inflight).hasValue(1);
+        assertThat(writeLimiter.getInflight()).isZero();
+    }
+
+    @Test
+    void concurrentCallBeyondLimitShouldBeRejected() {
+        assertThat(readLimiter.tryAcquire()).isTrue();
+
+        assertThatThrownBy(() -> aspect.limit(joinPoint("read", () -> null)))
+                .isInstanceOf(ServiceOverloadedException.class);
+    }
+
+    private static ProceedingJoinPoint joinPoint(String method, Body body) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(Fixture.class.getMethod(method));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenAnswer(invocation -> body.run());
+        return joinPoint;
+    }
+
+    private interface Body {
+        Object run() throws Throwable;
+    }
+
+    static class Fixture {
+        @Transactional(readOnly = true)
+        public void read() {
+        }
+
+        @Transactional
+        public void write() {
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.microservices.user_service.profiling;
+
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import com.jayway.jsonpath.JsonPath;
+import com.microservices.user_service.service.UserService;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class JfrRecordingEndpointIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void recordingShouldContainServiceRepositoryAndCacheEvents() throws Exception {
+        AtomicBoolean recording = new AtomicBoolean(true);
+        Thread load = new Thread(() -> {
+            while (recording.get()) {
+                redisTemplate.delete("users::1");
+                userService.findById(1L);
+            }
+        });
+        load.start();
+        byte[] jfr;
+        try {
+            long id = startRecording("2s");
+            mockMvc.perform(start("2s"))
+                    .andExpect(status().isTooManyRequests());
+            mockMvc.perform(get("/actuator/jfr/{id}", id))
+                    .andExpect(status().isConflict());
+            awaitState("READY");
+            jfr = mockMvc.perform(get("/actuator/jfr/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+            mockMvc.perform(get("/actuator/jfr/{id}", id))
+                    .andExpect(status().isNotFound());
+        } finally {
+            recording.set(false);
+            load.join();
+        }
+
+        Path file = Files.write(tempDir.resolve("recording.jfr"), jfr);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.microservices.user_service.ServiceCall");
+            assertThat(event.getString("service")).isEqualTo("UserService");
+            assertThat(event.getString("method")).isEqualTo("findById");
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.microservices.user_service.RepositoryCall");
+            assertThat(event.getString("repository")).isEqualTo("UserRepository");
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.microservices.user_service.CacheOperation");
+            assertThat(event.getString("keySpace")).isEqualTo("users");
+            assertThat(event.getString("operation")).isEqualTo("put");
+        });
+    }
+
+    @Test
+    void recordingStoppedBeforeItsDurationShouldNotBeReturned() throws Exception {
+        long id = startRecording("1m");
+        FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getId() == id)
+                .forEach(Recording::stop);
+
+        mockMvc.perform(get("/actuator/jfr/{id}", id))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void durationAboveMaximumShouldBeRejected() throws Exception {
+        mockMvc.perform(start("1h"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long startRecording(String duration) throws Exception {
+        String body = mockMvc.perform(start(duration))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RECORDING"))
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<Number>read(body, "$.id").longValue();
+    }
+
+    private static MockHttpServletRequestBuilder start(String duration) {
+        return post("/actuator/jfr")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"duration\": \"" + duration + "\"}");
+    }
+
+    private void awaitState(String state) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!JsonPath.read(mockMvc.perform(get("/actuator/jfr")).andReturn().getResponse().getContentAsString(),
+                "$.state").equals(state)) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+}
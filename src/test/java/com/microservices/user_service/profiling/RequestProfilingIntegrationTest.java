@@ -0,0 +1,79 @@
+package com.microservices.user_service.profiling;
+
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(OutputCaptureExtension.class)
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = {"profiling.requests.sample-rate=1", "profiling.requests.slow-threshold=0s"})
+class RequestProfilingIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private RequestProfilingFilter requestProfilingFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(requestProfilingFilter)
+                .build();
+        redisTemplate.delete(redisTemplate.keys("users*"));
+    }
+
+    @Test
+    void requestsShouldBeMeasuredPerHandler() throws Exception {
+        mockMvc.perform(get("/api/users/{id}/with-cards", 1L)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}/with-cards", 1L)).andExpect(status().isOk());
+
+        DistributionSummary allocated = meterRegistry.get("http.server.requests.allocated")
+                .tag("handler", "UserController.getUserWithCardsById").summary();
+        Timer cpu = meterRegistry.get("http.server.requests.cpu")
+                .tag("handler", "UserController.getUserWithCardsById").timer();
+        assertThat(allocated.count()).isEqualTo(2);
+        assertThat(allocated.totalAmount()).isPositive();
+        assertThat(cpu.count()).isEqualTo(2);
+        assertThat(cpu.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void sampledSlowRequestShouldBeLoggedWithSqlAndCacheOperations(CapturedOutput output) throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L)).andExpect(status().isOk());
+
+        assertThat(output.getOut())
+                .contains("Slow request GET /api/users/1 handler=UserController.getUserById status=200")
+                .contains("cache users get keys=1 hits=0")
+                .containsPattern("sql select .* from users")
+                .contains("cache users put keys=1");
+    }
+}
@@ -1,22 +1,32 @@
 package com.microservices.user_service.service;
 
 import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.CountMode;
 import com.microservices.user_service.exception.DuplicateResourceException;
 import com.microservices.user_service.exception.NotFoundException;
 import com.microservices.user_service.mapper.CardMapper;
 import com.microservices.user_service.model.Card;
 import com.microservices.user_service.model.User;
+import com.microservices.user_service.model.UserCardDelta;
+import com.microservices.user_service.repository.CardOwner;
 import com.microservices.user_service.repository.CardRepository;
+import com.microservices.user_service.repository.UserCardDeltaRepository;
 import com.microservices.user_service.repository.UserRepository;
+import com.microservices.user_service.security.CardNumberHasher;
+import com.microservices.user_service.shard.CardNumberShardIndex;
+import com.microservices.user_service.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.Arrays;
 import java.util.List;
@@ -28,6 +38,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,12 +50,32 @@ class CardServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCardDeltaRepository userCardDeltaRepository;
+
     @Mock
     private CardMapper cardMapper;
 
+    @Mock
+    private CardNumberHasher cardNumberHasher;
+
+    @Mock
+    private RowCountService rowCountService;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.singleShard();
+
+    @Spy
+    private CardNumberShardIndex cardNumberIndex = CardNumberShardIndex.singleShard();
+
     @InjectMocks
     private CardService cardService;
 
+    @AfterEach
+    void noUnexpectedQueries() {
+        verifyNoMoreInteractions(cardRepository, userRepository, userCardDeltaRepository);
+    }
+
     private User createUser(Long id, String name, String email) {
         User user = new User();
         user.setId(id);
@@ -75,8 +106,11 @@ class CardServiceTest {
         Card savedCard = createCard(2L, "1111222233334444", "MOLLY BING", "06/26", user);
         CardDTO expectedDTO = createCardDTO(2L, 1L, "1111222233334444", "MOLLY BING", "06/26");
 
+        byte[] numberHash = {1, 2, 3, 4};
+
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cardRepository.findByNumberNative("1111222233334444")).thenReturn(Optional.empty());
+        when(cardNumberHasher.hash("1111222233334444")).thenReturn(numberHash);
+        when(cardRepository.existsByNumberHash(numberHash)).thenReturn(false);
         when(cardMapper.toEntity(inputDTO)).thenReturn(newCard);
         when(cardRepository.save(newCard)).thenReturn(savedCard);
         when(cardMapper.toDTO(savedCard)).thenReturn(expectedDTO);
@@ -85,9 +119,12 @@ class CardServiceTest {
 
         assertThat(result).isEqualTo(expectedDTO);
         verify(userRepository).findById(1L);
-        verify(cardRepository).findByNumberNative("1111222233334444");
+        verify(cardNumberIndex).claim(numberHash, 0);
+        verify(cardRepository).existsByNumberHash(numberHash);
         verify(cardRepository).save(newCard);
+        verify(userCardDeltaRepository).save(new UserCardDelta(1L, 1));
         assertThat(newCard.getUser()).isEqualTo(user);
+        assertThat(newCard.getNumberHash()).isEqualTo(numberHash);
     }
 
     @Test
@@ -99,18 +136,20 @@ class CardServiceTest {
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("User not found with id: 200");
 
-        verify(cardRepository, never()).findByNumberNative(anyString());
+        verify(cardNumberHasher, never()).hash(anyString());
+        verify(cardRepository, never()).existsByNumberHash(any());
         verify(cardRepository, never()).save(any());
     }
 
     @Test
     void createCardWhenCardNumberExistsExpectThrowDuplicateResourceException() {
         User user = createUser(1L, "Kira", "kira@example.com");
-        Card existingCard = createCard(1L, "1234567812345678", "KIRA CHANG", "12/25", user);
         CardDTO inputDTO = createCardDTO(null, 1L, "1234567812345678", "NEW HOLDER", "12/26");
+        byte[] numberHash = {5, 6, 7, 8};
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cardRepository.findByNumberNative("1234567812345678")).thenReturn(Optional.of(existingCard));
+        when(cardNumberHasher.hash("1234567812345678")).thenReturn(numberHash);
+        when(cardRepository.existsByNumberHash(numberHash)).thenReturn(true);
 
         assertThatThrownBy(() -> cardService.createCard(inputDTO))
                 .isInstanceOf(DuplicateResourceException.class)
@@ -126,19 +165,19 @@ class CardServiceTest {
         Card card = createCard(1L, "1234567812345678", "KIRA CHANG", "12/25", user);
         CardDTO expectedDTO = createCardDTO(1L, 1L, "1234567812345678", "KIRA CHANG", "12/25");
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        when(cardRepository.findLiveById(1L)).thenReturn(Optional.of(card));
         when(cardMapper.toDTO(card)).thenReturn(expectedDTO);
 
         CardDTO result = cardService.getCardById(1L);
 
         assertThat(result).isEqualTo(expectedDTO);
-        verify(cardRepository).findById(1L);
+        verify(cardRepository).findLiveById(1L);
         verify(cardMapper).toDTO(card);
     }
 
     @Test
     void getCardByIdWhenCardNotExistsExpectThrowNotFoundException() {
-        when(cardRepository.findById(333L)).thenReturn(Optional.empty());
+        when(cardRepository.findLiveById(333L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardService.getCardById(333L))
                 .isInstanceOf(NotFoundException.class)
@@ -155,36 +194,73 @@ class CardServiceTest {
 
         Pageable pageable = PageRequest.of(0, 10);
         List<Card> cards = Arrays.asList(card);
-        Page<Card> cardPage = new PageImpl<>(cards, pageable, cards.size());
+        Slice<Card> cardSlice = new SliceImpl<>(cards, pageable, false);
 
-        when(cardRepository.findAll(pageable)).thenReturn(cardPage);
+        when(cardRepository.findAllBy(pageable)).thenReturn(cardSlice);
         when(cardMapper.toDTO(card)).thenReturn(cardDTO);
+        when(rowCountService.countCards()).thenReturn(1L);
 
-        Page<CardDTO> resultPage = cardService.getAllCards(pageable);
+        Page<CardDTO> resultPage = (Page<CardDTO>) cardService.getAllCards(pageable, CountMode.EXACT);
 
         assertThat(resultPage.getTotalElements()).isEqualTo(1);
         assertThat(resultPage.getContent().get(0)).isEqualTo(cardDTO);
-        verify(cardRepository).findAll(pageable);
+        verify(cardRepository).findAllBy(pageable);
+    }
+
+    @Test
+    void getAllCardsWithoutCountExpectSliceWithoutCountQuery() {
+        User user = createUser(1L, "Kira", "kira@example.com");
+        Card card = createCard(1L, "1234567812345678", "KIRA CHANG", "12/25", user);
+        CardDTO cardDTO = createCardDTO(1L, 1L, "1234567812345678", "KIRA CHANG", "12/25");
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(cardRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(card), pageable, true));
+        when(cardMapper.toDTO(card)).thenReturn(cardDTO);
+
+        Slice<CardDTO> result = cardService.getAllCards(pageable, CountMode.NONE);
+
+        assertThat(result).isNotInstanceOf(Page.class);
+        assertThat(result.hasNext()).isTrue();
+        verify(rowCountService, never()).countCards();
+        verify(rowCountService, never()).estimateCards();
     }
 
     @Test
     void deleteCardWhenCardExistsExpectDeleteCard() {
-        when(cardRepository.existsById(1L)).thenReturn(true);
+        byte[] numberHash = {1, 2, 3, 4};
+        when(cardRepository.findLiveOwnerById(1L)).thenReturn(Optional.of(new Owner(7L, numberHash)));
+        when(cardRepository.deleteByIdAndUserId(1L, 7L)).thenReturn(1);
+
+        cardService.deleteCard(1L);
+
+        verify(cardRepository).findLiveOwnerById(1L);
+        verify(cardRepository).deleteByIdAndUserId(1L, 7L);
+        verify(userCardDeltaRepository).save(new UserCardDelta(7L, -1));
+        verify(cardNumberIndex).release(numberHash, 0);
+    }
+
+    @Test
+    void deleteCardWhenDeletedConcurrentlyExpectNoCardCountDelta() {
+        when(cardRepository.findLiveOwnerById(1L)).thenReturn(Optional.of(new Owner(7L, new byte[]{1})));
+        when(cardRepository.deleteByIdAndUserId(1L, 7L)).thenReturn(0);
 
         cardService.deleteCard(1L);
 
-        verify(cardRepository).existsById(1L);
-        verify(cardRepository).deleteById(1L);
+        verify(cardRepository).findLiveOwnerById(1L);
+        verify(cardRepository).deleteByIdAndUserId(1L, 7L);
     }
 
     @Test
     void deleteCardWhenCardNotExistsExpectThrowNotFoundException() {
-        when(cardRepository.existsById(444L)).thenReturn(false);
+        when(cardRepository.findLiveOwnerById(444L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardService.deleteCard(444L))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Card not found with id: 444");
 
-        verify(cardRepository, never()).deleteById(any());
+        verify(cardRepository, never()).deleteByIdAndUserId(any(), any());
+    }
+
+    private record Owner(Long getUserId, byte[] getNumberHash) implements CardOwner {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package com.microservices.user_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-cards.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = "card-summary.chunk-size=1")
+class CardSummaryFolderIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CardSummaryFolder folder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void summaryShouldCountPendingDeltasUntilTheyAreFolded() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardCount", is(2)))
+                .andExpect(jsonPath("$.nextCardExpiry", is("2024-07-01")));
+
+        CardDTO card = new CardDTO();
+        card.setUserId(1L);
+        card.setNumber("4000111122223333");
+        card.setHolder("Test User");
+        card.setExpirationDate("12/30");
+        mockMvc.perform(post("/api/card_info")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(card)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(delete("/api/card_info/{id}", 2L)).andExpect(status().isNoContent());
+
+        assertThatSql(() -> mockMvc.perform(get("/api/users/{id}/card-summary", 1L))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.userId", is(1)))
+                        .andExpect(jsonPath("$.cardCount", is(2)))
+                        .andExpect(jsonPath("$.nextCardExpiry", is("2026-01-01"))))
+                .hasSelectCount(1)
+                .hasTotalCount(1);
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(jsonPath("$.cardCount", is(2)))
+                .andExpect(jsonPath("$.nextCardExpiry", is("2024-07-01")));
+
+        assertThat(folder.fold()).isEqualTo(2);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM user_card_deltas", Long.class)).isZero();
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardCount", is(2)))
+                .andExpect(jsonPath("$.nextCardExpiry", is("2026-01-01")));
+        mockMvc.perform(get("/api/users/{id}/card-summary", 1L))
+                .andExpect(jsonPath("$.cardCount", is(2)))
+                .andExpect(jsonPath("$.nextCardExpiry", is("2026-01-01")));
+    }
+
+    @Test
+    void foldShouldClearNextExpiryWhenLastCardIsDeleted() throws Exception {
+        mockMvc.perform(delete("/api/card_info/{id}", 3L)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/{id}/card-summary", 2L))
+                .andExpect(jsonPath("$.cardCount", is(0)))
+                .andExpect(jsonPath("$.nextCardExpiry", nullValue()));
+
+        assertThat(folder.fold()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/users/{id}", 2L))
+                .andExpect(jsonPath("$.cardCount", is(0)))
+                .andExpect(jsonPath("$.nextCardExpiry", nullValue()));
+        assertThat(folder.fold()).isZero();
+    }
+
+    @Test
+    void summaryOfMissingOrDeletedUserShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/users/{id}/card-summary", 999L)).andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/users/{id}", 1L)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{id}/card-summary", 1L)).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,108 @@
+package com.microservices.user_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static com.microservices.user_service.sql.SqlStatements.assertThatSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-cards.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = {"soft-delete.enabled=true", "soft-delete.chunk-size=1", "soft-delete.pause=0s"})
+class DeletedUserPurgerIntegrationTest extends AbstractIntegrationTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DeletedUserPurger purger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @Test
+    void deleteShouldOnlyMarkUserAndHideItAndItsCards() throws Exception {
+        mockMvc.perform(get("/api/users/{id}/with-cards", 1L)).andExpect(status().isOk());
+
+        assertThatSql(() -> mockMvc.perform(delete("/api/users/{id}", 1L))
+                .andExpect(status().isNoContent()))
+                .hasUpdateCount(1)
+                .hasTotalCount(1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM card_info WHERE user_id = 1", Long.class))
+                .isEqualTo(2);
+        mockMvc.perform(get("/api/users/{id}", 1L)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/{id}/with-cards", 1L)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/email/{email}", "test.user@example.com")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/card_info/{id}", 1L)).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/card_info/{id}", 1L)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/card_info?page=0&size=10&sort=id&count=exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(1)))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+        mockMvc.perform(get("/api/users?page=0&size=10&sort=id&count=exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)));
+        mockMvc.perform(delete("/api/users/{id}", 1L)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void emailOfDeletedUserShouldBeFreeAtOnce() throws Exception {
+        mockMvc.perform(delete("/api/users/{id}", 1L)).andExpect(status().isNoContent());
+
+        UserDTO user = new UserDTO(null, "New", "Owner", LocalDate.of(2000, 1, 1), "Test.User@example.com");
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(user)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/users/email/{email}", "test.user@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("New")));
+    }
+
+    @Test
+    void purgeShouldRemoveCardsInChunksAndThenTheUsers() throws Exception {
+        mockMvc.perform(post("/api/users/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [1]}"))
+                .andExpect(status().isOk());
+
+        assertThat(purger.purge()).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM users", Long.class)).containsExactly(2L);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM card_info", Long.class)).containsExactly(3L);
+        assertThat(purger.purge()).isZero();
+    }
+}
@@ -0,0 +1,65 @@
+package com.microservices.user_service.service;
+
+import com.microservices.user_service.dto.UserCardSummaryDTO;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import com.microservices.user_service.model.Card;
+import com.microservices.user_service.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:sql_scripts/insert-users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/insert-cards.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql_scripts/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class ExpiredCardSweeperIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ExpiredCardSweeper sweeper;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void sweepShouldDeleteOnlyExpiredCardsAndEvictTheirOwners() {
+        userService.findUserWithCardsById(1L);
+        userService.findUserWithCardsById(2L);
+
+        long deleted = sweeper.sweep(LocalDate.of(2026, 1, 1));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(cardRepository.findAll()).extracting(Card::getId).containsExactly(3L);
+        assertThat(cacheManager.getCache("usersWithCards").get(1L)).isNull();
+        assertThat(cacheManager.getCache("usersWithCards").get(2L)).isNotNull();
+    }
+
+    @Test
+    void sweepShouldWalkAllChunks() {
+        long deleted = sweeper.sweep(LocalDate.of(2030, 1, 1));
+
+        assertThat(deleted).isEqualTo(3);
+        assertThat(cardRepository.count()).isZero();
+        assertThat(sweeper.sweep(LocalDate.of(2030, 1, 1))).isZero();
+        assertThat(userService.findCardSummary(1L)).get().extracting(UserCardSummaryDTO::getCardCount).isEqualTo(0);
+        assertThat(userService.findCardSummary(2L)).get().extracting(UserCardSummaryDTO::getCardCount).isEqualTo(0);
+    }
+
+    @Test
+    void savedCardShouldDeriveExpiresOn() {
+        Card card = cardRepository.findById(3L).orElseThrow();
+        card.setExpirationDate("12/27");
+
+        assertThat(cardRepository.save(card).getExpiresOn()).isEqualTo(LocalDate.of(2028, 1, 1));
+        assertThat(Card.expiresOn("13/27")).isNull();
+    }
+}
@@ -1,35 +1,58 @@
 package com.microservices.user_service.service;
 
+import com.microservices.user_service.cache.CachedPageIds;
+import com.microservices.user_service.cache.CachedSearchPage;
+import com.microservices.user_service.cache.UserPageCache;
+import com.microservices.user_service.directory.UserDirectoryService;
+import com.microservices.user_service.dto.BulkDeleteResult;
 import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.CountMode;
+import com.microservices.user_service.dto.SearchCursor;
+import com.microservices.user_service.dto.UserCardSummaryDTO;
 import com.microservices.user_service.dto.UserDTO;
 import com.microservices.user_service.dto.UserDTOWithCards;
 import com.microservices.user_service.exception.DuplicateResourceException;
 import com.microservices.user_service.exception.NotFoundException;
 import com.microservices.user_service.mapper.UserMapper;
 import com.microservices.user_service.model.User;
+import com.microservices.user_service.repository.CardSummary;
+import com.microservices.user_service.repository.DeletedUser;
+import com.microservices.user_service.repository.FoldedCardDeltas;
+import com.microservices.user_service.repository.UserCardDeltaRepository;
 import com.microservices.user_service.repository.UserRepository;
+import com.microservices.user_service.repository.UserSearchHit;
+import com.microservices.user_service.shard.EmailShardIndex;
+import com.microservices.user_service.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,12 +61,41 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCardDeltaRepository userCardDeltaRepository;
+
+    @Mock
+    private UserLoader userLoader;
+
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserPageCache userPageCache;
+
+    @Mock
+    private RowCountService rowCountService;
+
+    @Mock
+    private UserDirectoryService userDirectory;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.singleShard();
+
+    @Spy
+    private EmailShardIndex emailShardIndex = EmailShardIndex.singleShard();
+
+    @Spy
+    private SoftDeleteProperties softDelete = new SoftDeleteProperties();
+
     @InjectMocks
     private UserService userService;
 
+    @AfterEach
+    void noUnexpectedQueries() {
+        verifyNoMoreInteractions(userRepository, userCardDeltaRepository);
+    }
+
     private User createUser(Long id, String name, String surname, String email, LocalDate birthDate) {
         User user = new User();
         user.setId(id);
@@ -81,7 +133,7 @@ class UserServiceTest {
     }
 
     @Test
-    void getByIdWhenUserExistsExpectReturnUserDTO() {
+    void findByIdWhenUserExistsExpectReturnUserDTO() {
         User user = createUser(1L, "Kira", "Chang", "kira.chang@example.com",
                 LocalDate.of(1990, 1, 1));
         UserDTO userDTO = createUserDTO(1L, "Kira", "Chang", "kira.chang@example.com",
@@ -90,7 +142,7 @@ class UserServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userMapper.toDTO(user)).thenReturn(userDTO);
 
-        UserDTO testUser = userService.getById(1L);
+        UserDTO testUser = userService.findById(1L).orElseThrow();
 
         assertThat(testUser).isNotNull();
         assertThat(testUser.getId()).isEqualTo(1L);
@@ -99,19 +151,17 @@ class UserServiceTest {
     }
 
     @Test
-    void getByIdWhenUserNotExistsExpectThrowNotFoundException() {
+    void findByIdWhenUserNotExistsExpectEmptyResult() {
         when(userRepository.findById(134L)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> userService.getById(134L))
-                .isInstanceOf(NotFoundException.class)
-                .hasMessage("User not found with id: 134");
+        assertThat(userService.findById(134L)).isEmpty();
 
         verify(userRepository).findById(134L);
         verify(userMapper, never()).toDTO(any());
     }
 
     @Test
-    void getUserWithCardsByIdWhenUserExistsWithCardsExpectReturnUserDTOWithCards() {
+    void findUserWithCardsByIdWhenUserExistsWithCardsExpectReturnUserDTOWithCards() {
         User user = createUser(1L, "Kira", "Chang", "kira.chang@example.com",
                 LocalDate.of(1990, 1, 1));
 
@@ -125,7 +175,7 @@ class UserServiceTest {
         when(userRepository.findByIdWithCards(1L)).thenReturn(Optional.of(user));
         when(userMapper.toDTOWithCards(user)).thenReturn(userDTOWithCards);
 
-        UserDTOWithCards testUser = userService.getUserWithCardsById(1L);
+        UserDTOWithCards testUser = userService.findUserWithCardsById(1L).orElseThrow();
 
         assertThat(testUser).isNotNull();
         assertThat(testUser.getId()).isEqualTo(1L);
@@ -138,21 +188,37 @@ class UserServiceTest {
 
 
     @Test
-    void getByEmailWhenUserExistsExpectReturnUserDTO() {
-        User user = createUser(1L, "Kira", "Chang", "kira.chang@example.com",
-                LocalDate.of(1990, 1, 1));
+    void findByEmailWhenUserExistsExpectReturnUserDTO() {
         UserDTO userDTO = createUserDTO(1L, "Kira", "Chang", "kira.chang@example.com",
                 LocalDate.of(1990, 1, 1));
 
-        when(userRepository.findByEmail("kira.chang@example.com")).thenReturn(Optional.of(user));
-        when(userMapper.toDTO(user)).thenReturn(userDTO);
+        when(userPageCache.getUserId("kira.chang@example.com")).thenReturn(null);
+        when(userLoader.loadByEmail("kira.chang@example.com")).thenReturn(Optional.of(userDTO));
 
-        UserDTO result = userService.getByEmail("kira.chang@example.com");
+        UserDTO result = userService.findByEmail(" Kira.Chang@example.com").orElseThrow();
 
         assertThat(result).isNotNull();
         assertThat(result.getEmail()).isEqualTo("kira.chang@example.com");
-        verify(userRepository).findByEmail("kira.chang@example.com");
-        verify(userMapper).toDTO(user);
+        verify(userLoader).loadByEmail("kira.chang@example.com");
+        verify(userPageCache).putEmail("kira.chang@example.com", userDTO);
+    }
+
+    @Test
+    void findByEmailWhenIndexedExpectServeCanonicalEntryIgnoringCase() {
+        UserDTO userDTO = createUserDTO(1L, "Kira", "Chang", "kira.chang@example.com",
+                LocalDate.of(1990, 1, 1));
+        when(userPageCache.getUserId("kira.chang@example.com")).thenReturn(1L);
+        when(userPageCache.getUsers(List.of(1L))).thenReturn(new HashMap<>(Map.of(1L, userDTO)));
+
+        assertThat(userService.findByEmail(" Kira.Chang@Example.COM")).contains(userDTO);
+        verify(userPageCache, never()).putEmail(anyString(), any());
+    }
+
+    @Test
+    void findByEmailWhenCachedAsUnknownExpectEmptyWithoutQuery() {
+        when(userPageCache.getUserId("nobody@example.com")).thenReturn(UserPageCache.NO_USER);
+
+        assertThat(userService.findByEmail("nobody@example.com")).isEmpty();
     }
 
 
@@ -220,6 +286,43 @@ class UserServiceTest {
         verify(userRepository).findById(1L);
         verify(userRepository, never()).findByEmail(anyString());
         verify(userRepository).save(existingUser);
+        verify(userPageCache).evictUser(1L, "kira.chang@example.com", "kira.chang@example.com");
+    }
+
+    @Test
+    void updateWhenEmailChangedExpectEvictOldAndNewEmailWithUser() {
+        User existingUser = createUser(1L, "Kira", "Chang", "kira.chang@example.com",
+                LocalDate.of(1990, 1, 1));
+        UserDTO updateData = createUserDTO(null, "Kira", "Chang", "kira@example.com",
+                LocalDate.of(1990, 1, 1));
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.findByEmail("kira@example.com")).thenReturn(Optional.empty());
+        when(userRepository.save(existingUser)).thenReturn(existingUser);
+
+        userService.update(1L, updateData);
+
+        verify(userRepository).findById(1L);
+        verify(userRepository).findByEmail("kira@example.com");
+        verify(userRepository).save(existingUser);
+        verify(userPageCache).evictUser(1L, "kira.chang@example.com", "kira@example.com");
+    }
+
+    @Test
+    void updateWhenOnlyEmailCaseChangedExpectNoDuplicateCheck() {
+        User existingUser = createUser(1L, "Kira", "Chang", "kira.chang@example.com",
+                LocalDate.of(1990, 1, 1));
+        UserDTO updateData = createUserDTO(null, "Kira", "Chang", "Kira.Chang@example.com",
+                LocalDate.of(1990, 1, 1));
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.save(existingUser)).thenReturn(existingUser);
+
+        userService.update(1L, updateData);
+
+        assertThat(existingUser.getEmail()).isEqualTo("Kira.Chang@example.com");
+        verify(userRepository).findById(1L);
+        verify(userRepository).save(existingUser);
     }
 
     @Test
@@ -257,18 +360,33 @@ class UserServiceTest {
 
 
     @Test
-    void deleteByIdWhenUserExistsExpectDeleteUser() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+    void deleteByIdWhenUserExistsExpectDeleteUserAndEvictEntries() {
+        when(userRepository.deleteAllByIdReturning(List.of(1L)))
+                .thenReturn(List.of(deletedUser(1L, "kira.chang@example.com")));
 
         userService.deleteById(1L);
 
-        verify(userRepository).existsById(1L);
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).deleteAllByIdReturning(List.of(1L));
+        verify(userRepository, never()).deleteById(any());
+        verify(userPageCache).evictUsers(List.of(1L), List.of("kira.chang@example.com"));
+    }
+
+    @Test
+    void deleteByIdWithSoftDeleteExpectMarkUserDeletedAndEvictEntries() {
+        softDelete.setEnabled(true);
+        when(userRepository.softDeleteAllByIdReturning(List.of(1L)))
+                .thenReturn(List.of(deletedUser(1L, "kira.chang@example.com")));
+
+        userService.deleteById(1L);
+
+        verify(userRepository, never()).deleteAllByIdReturning(any());
+        verify(userPageCache).evictUsers(List.of(1L), List.of("kira.chang@example.com"));
+        verify(userDirectory).onUsersDeleted(List.of(1L));
     }
 
     @Test
     void deleteByIdWhenUserNotExistsExpectThrowNotFoundException() {
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.deleteAllByIdReturning(List.of(999L))).thenReturn(List.of());
 
         assertThatThrownBy(() -> userService.deleteById(999L))
                 .isInstanceOf(NotFoundException.class)
@@ -277,24 +395,169 @@ class UserServiceTest {
         verify(userRepository, never()).deleteById(any());
     }
 
+    @Test
+    void bulkDeleteExpectReportDeletedAndMissingIds() {
+        when(userRepository.deleteAllByIdReturning(List.of(1L, 2L, 999L)))
+                .thenReturn(List.of(deletedUser(1L, "kira.chang@example.com"),
+                        deletedUser(2L, "tom.ripley@example.com")));
+
+        BulkDeleteResult result = userService.bulkDelete(List.of(1L, 2L, 999L, 2L));
+
+        assertThat(result.getDeleted()).containsExactly(1L, 2L);
+        assertThat(result.getNotFound()).containsExactly(999L);
+        verify(userPageCache).evictUsers(List.of(1L, 2L),
+                List.of("kira.chang@example.com", "tom.ripley@example.com"));
+    }
+
+    private static DeletedUser deletedUser(Long id, String email) {
+        return new DeletedUser() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
     @Test
     void getAllUsersWhenUsersExistExpectReturnPageOfUserDTO() {
         Pageable pageable = PageRequest.of(0, 10);
-        User user = createUser(1L, "Kira", "Chang", "kira.chang@example.com",
-                LocalDate.of(1990, 1, 1));
         UserDTO userDTO = createUserDTO(1L, "Kira", "Chang", "kira.chang@example.com",
                 LocalDate.of(1990, 1, 1));
-        List<User> users = Arrays.asList(user);
-        Page<User> userPage = new PageImpl<>(users, pageable, users.size());
 
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
-        when(userMapper.toDTO(user)).thenReturn(userDTO);
+        when(userLoader.loadPage(pageable)).thenReturn(new SliceImpl<>(List.of(userDTO), pageable, false));
+        when(rowCountService.countUsers()).thenReturn(1L);
+
+        Slice<UserDTO> testSlice = userService.getAllUsers(pageable, CountMode.EXACT);
+
+        assertThat(testSlice).isInstanceOf(Page.class);
+        assertThat(((Page<UserDTO>) testSlice).getTotalElements()).isEqualTo(1);
+        assertThat(testSlice.getContent().get(0)).isEqualTo(userDTO);
+        verify(userLoader).loadPage(pageable);
+        verify(userPageCache).putPage(eq(pageable), any());
+    }
+
+    @Test
+    void getAllUsersWhenPageIdsCachedExpectLoadOnlyMissingUsers() {
+        Pageable pageable = PageRequest.of(0, 10);
+        UserDTO cachedUser = createUserDTO(1L, "Kira", "Chang", "kira.chang@example.com",
+                LocalDate.of(1990, 1, 1));
+        UserDTO missingUserDTO = createUserDTO(2L, "Tom", "Ripley", "tom.ripley@example.com",
+                LocalDate.of(1985, 5, 15));
+
+        when(userPageCache.getIds(pageable)).thenReturn(new CachedPageIds(List.of(2L, 1L), false));
+        when(userPageCache.getUsers(List.of(2L, 1L))).thenReturn(new HashMap<>(Map.of(1L, cachedUser)));
+        when(userLoader.loadAllById(List.of(2L))).thenReturn(List.of(missingUserDTO));
 
-        Page<UserDTO> testPage = userService.getAllUsers(pageable);
+        Slice<UserDTO> testSlice = userService.getAllUsers(pageable, CountMode.NONE);
+
+        assertThat(testSlice).isNotInstanceOf(Page.class);
+        assertThat(testSlice.getContent()).containsExactly(missingUserDTO, cachedUser);
+        assertThat(testSlice.hasNext()).isFalse();
+        verify(userLoader, never()).loadPage(any(Pageable.class));
+        verify(userPageCache).putUsers(List.of(missingUserDTO));
+        verify(rowCountService, never()).countUsers();
+    }
+
+    @Test
+    void getAllUsersWithEstimatedCountExpectEstimateNotBelowLoadedRows() {
+        Pageable pageable = PageRequest.of(1, 2);
+        UserDTO first = createUserDTO(3L, "Kira", "Chang", "kira.chang@example.com",
+                LocalDate.of(1990, 1, 1));
+        UserDTO second = createUserDTO(4L, "Tom", "Ripley", "tom.ripley@example.com",
+                LocalDate.of(1985, 5, 15));
+
+        when(userPageCache.getIds(pageable)).thenReturn(new CachedPageIds(List.of(3L, 4L), true));
+        when(userPageCache.getUsers(List.of(3L, 4L))).thenReturn(new HashMap<>(Map.of(3L, first, 4L, second)));
+        when(rowCountService.estimateUsers()).thenReturn(0L);
+
+        Page<UserDTO> testPage = (Page<UserDTO>) userService.getAllUsers(pageable, CountMode.ESTIMATED);
+
+        assertThat(testPage.getTotalElements()).isEqualTo(5);
+        assertThat(testPage.hasNext()).isTrue();
+        verify(rowCountService, never()).countUsers();
+    }
+
+    @Test
+    void findCardSummaryExpectSummaryOfUser() {
+        LocalDate nextExpiry = LocalDate.of(2027, 3, 31);
+        CardSummary summary = mock(CardSummary.class);
+        when(summary.getUserId()).thenReturn(1L);
+        when(summary.getCardCount()).thenReturn(3);
+        when(summary.getNextCardExpiry()).thenReturn(nextExpiry);
+        when(userRepository.findCardSummary(1L)).thenReturn(Optional.of(summary));
+
+        Optional<UserCardSummaryDTO> result = userService.findCardSummary(1L);
+
+        assertThat(result).contains(new UserCardSummaryDTO(1L, 3, nextExpiry));
+        verify(userRepository).findCardSummary(1L);
+    }
+
+    @Test
+    void findCardSummaryWhenUserNotExistsExpectEmpty() {
+        when(userRepository.findCardSummary(404L)).thenReturn(Optional.empty());
+
+        assertThat(userService.findCardSummary(404L)).isEmpty();
+        verify(userRepository).findCardSummary(404L);
+    }
+
+    @Test
+    void foldCardDeltasExpectFoldedCountAndEvictedUsers() {
+        FoldedCardDeltas first = mock(FoldedCardDeltas.class);
+        when(first.getUserId()).thenReturn(1L);
+        when(first.getDeltas()).thenReturn(3L);
+        FoldedCardDeltas second = mock(FoldedCardDeltas.class);
+        when(second.getUserId()).thenReturn(2L);
+        when(second.getDeltas()).thenReturn(1L);
+        when(userCardDeltaRepository.fold(10)).thenReturn(List.of(first, second));
+
+        int folded = userService.foldCardDeltas(0, 10);
+
+        assertThat(folded).isEqualTo(4);
+        verify(userCardDeltaRepository).fold(10);
+        verify(userPageCache).evictUsers(List.of(1L, 2L));
+        verify(userDirectory).onUsersChanged(List.of(1L, 2L));
+    }
+
+    @Test
+    void searchPageExpectRankedIdsWithCursorOfLastHit() {
+        List<UserSearchHit> hits = List.of(searchHit(4L, 0, 3), searchHit(2L, 1000, 3), searchHit(9L, 3120, 3));
+        when(userRepository.search("smith", "smith", "%smith%", 4, 0, 1L, 3)).thenReturn(hits);
+
+        CachedSearchPage page = userService.searchPage("smith", "smith", new SearchCursor(0, 1L), 2,
+                searchSettings(3));
+
+        assertThat(page).isEqualTo(new CachedSearchPage(List.of(4L, 2L), "1000:2", false));
+        verify(userRepository).applySearchSettings("16MB");
+        verify(userRepository).search("smith", "smith", "%smith%", 4, 0, 1L, 3);
+    }
+
+    @Test
+    void searchPageWhenMoreCandidatesThanRankedExpectTruncatedLastPage() {
+        List<UserSearchHit> hits = List.of(searchHit(7L, 2000, 4));
+        when(userRepository.search("a_il", "a\\_il", "%a\\_il%", 4, -1, 0L, 3)).thenReturn(hits);
+
+        CachedSearchPage page = userService.searchPage("a_il", "a\\_il", SearchCursor.START, 2, searchSettings(3));
+
+        assertThat(page).isEqualTo(new CachedSearchPage(List.of(7L), null, true));
+        verify(userRepository).applySearchSettings("16MB");
+        verify(userRepository).search("a_il", "a\\_il", "%a\\_il%", 4, -1, 0L, 3);
+    }
+
+    private static UserSearchProperties searchSettings(int maxCandidates) {
+        UserSearchProperties settings = new UserSearchProperties();
+        settings.setMaxCandidates(maxCandidates);
+        return settings;
+    }
+
+    private static UserSearchHit searchHit(Long id, int rank, long candidates) {
+        return new SearchHit(id, rank, candidates);
+    }
 
-        assertThat(testPage).isNotNull();
-        assertThat(testPage.getTotalElements()).isEqualTo(1);
-        assertThat(testPage.getContent().get(0)).isEqualTo(userDTO);
-        verify(userRepository).findAll(pageable);
+    private record SearchHit(Long getId, int getRank, long getCandidates) implements UserSearchHit {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,320 @@
+package com.microservices.user_service.shard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jayway.jsonpath.JsonPath;
+import com.microservices.user_service.dto.CardDTO;
+import com.microservices.user_service.dto.UserDTO;
+import com.microservices.user_service.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "sharding.enabled=true",
+        "sharding.shards[0].schema=shard_0",
+        "sharding.shards[1].schema=shard_1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.liquibase.enabled=true",
+        "spring.liquibase.contexts=docker,card-partitioning"
+})
+class ShardingIntegrationTest extends AbstractIntegrationTest {
+    private static final String[] NAMES = {"Frank", "Alice", "Erin", "Carol", "Bob", "Dave"};
+    private static final Pattern PARTITION = Pattern.compile("card_info_p\\d+");
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardDataSources shards;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private CardNumberShardIndex cardNumberIndex;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            shards.jdbc(shard).execute("TRUNCATE card_info, users, user_email_index, card_number_index");
+        }
+    }
+
+    @Test
+    void usersShouldSpreadOverShardsAndBeFoundByIdAndEmail() throws Exception {
+        List<UserDTO> users = createUsers();
+
+        for (UserDTO user : users) {
+            assertThat(rowCount(shardRouter.shardOf(user.getId()), user.getId())).isEqualTo(1);
+            mockMvc.perform(get("/api/users/{id}", user.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.email", is(user.getEmail())));
+            mockMvc.perform(get("/api/users/email/{email}", user.getEmail()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id", is(user.getId().intValue())));
+        }
+        assertThat(users).extracting(user -> shardRouter.shardOf(user.getId())).contains(0, 1);
+    }
+
+    @Test
+    void emailShouldBeUniqueAcrossShards() throws Exception {
+        List<UserDTO> users = createUsers();
+        UserDTO first = users.get(0);
+        UserDTO onOtherShard = users.stream()
+                .filter(user -> shardRouter.shardOf(user.getId()) != shardRouter.shardOf(first.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(user("Copy", first.getEmail()))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(user("Copy", first.getEmail().toUpperCase()))))
+                .andExpect(status().isConflict());
+        assertThat(shardRouter.placementShard(" " + first.getEmail().toUpperCase()))
+                .isEqualTo(shardRouter.placementShard(first.getEmail()));
+
+        onOtherShard.setEmail(first.getEmail());
+        mockMvc.perform(put("/api/users/{id}", onOtherShard.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(onOtherShard)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void listingShouldMergeShardsInIdOrder() throws Exception {
+        List<Integer> ids = createUsers().stream().map(user -> user.getId().intValue()).sorted().toList();
+
+        mockMvc.perform(get("/api/users?page=0&size=4&sort=id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(ids.subList(0, 4).toArray())))
+                .andExpect(jsonPath("$.totalElements", is(NAMES.length)));
+        mockMvc.perform(get("/api/users?page=1&size=4&count=none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(ids.subList(4, 6).toArray())))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+        mockMvc.perform(get("/api/users?page=0&size=4&sort=name"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void keysetListingShouldContinueAfterLastIdAcrossShards() throws Exception {
+        List<Integer> ids = createUsers().stream().map(user -> user.getId().intValue()).sorted().toList();
+
+        mockMvc.perform(get("/api/users?after=0&size=4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(ids.subList(0, 4).toArray())))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        mockMvc.perform(get("/api/users?after={after}&size=4", ids.get(3)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(ids.subList(4, 6).toArray())))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+        mockMvc.perform(get("/api/users?after=0&sort=email"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cardsShouldLiveWithTheirUser() throws Exception {
+        List<UserDTO> users = createUsers();
+        List<Long> cardIds = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserDTO user = users.get(i);
+            CardDTO card = new CardDTO(null, user.getId(), "400000000000000" + i, user.getName(), "12/30");
+            String body = mockMvc.perform(post("/api/card_info")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(card)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            Long cardId = objectMapper.readValue(body, CardDTO.class).getId();
+            assertThat(shardRouter.shardOf(cardId)).isEqualTo(shardRouter.shardOf(user.getId()));
+            cardIds.add(cardId);
+
+            mockMvc.perform(get("/api/users/{id}/with-cards", user.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.cards.length()", is(1)));
+        }
+
+        mockMvc.perform(post("/api/card_info")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CardDTO(null, users.get(1).getId(), "4000000000000000", "Copy", "12/30"))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/card_info/{id}", cardIds.get(0)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/card_info?size=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(users.size())));
+    }
+
+    @Test
+    void cardNumberShouldBeClaimedByOneShardAtATime() {
+        byte[] numberHash = {1, 2, 3};
+
+        assertThat(cardNumberIndex.claim(numberHash, 0)).isTrue();
+        assertThat(cardNumberIndex.claim(numberHash, 1)).isFalse();
+
+        shards.jdbc(0).update("UPDATE card_number_index SET claimed_at = now() - INTERVAL '2 minutes'");
+        assertThat(cardNumberIndex.claim(numberHash, 1)).isTrue();
+        assertThat(cardNumberIndex.claim(numberHash, 0)).isFalse();
+
+        cardNumberIndex.release(numberHash, 1);
+        assertThat(cardNumberIndex.claim(numberHash, 0)).isTrue();
+    }
+
+    @Test
+    void cardInfoShouldBeHashPartitionedByUserWithNumbersUniqueAcrossPartitions() throws Exception {
+        List<UserDTO> users = createUsers();
+        UserDTO owner = users.get(0);
+        int shard = shardRouter.shardOf(owner.getId());
+        UserDTO neighbour = users.stream()
+                .filter(user -> user != owner && shardRouter.shardOf(user.getId()) == shard)
+                .findFirst()
+                .orElseThrow();
+        String body = mockMvc.perform(post("/api/card_info")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CardDTO(null, owner.getId(), "4000000000000000", "Owner", "12/30"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long cardId = objectMapper.readValue(body, CardDTO.class).getId();
+        JdbcTemplate jdbc = shards.jdbc(shard);
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM pg_inherits WHERE inhparent = 'card_info'::regclass",
+                Integer.class)).isEqualTo(16);
+        assertThat(partitionsScanned(jdbc, "SELECT * FROM card_info WHERE user_id = " + owner.getId())).hasSize(1);
+        assertThat(partitionsScanned(jdbc, "SELECT * FROM users u LEFT JOIN card_info c ON c.user_id = u.id"
+                + " WHERE u.id = " + owner.getId())).hasSize(1);
+        assertThatThrownBy(() -> jdbc.update("""
+                        INSERT INTO card_info (user_id, number, holder, expiration_date, number_hash)
+                        SELECT ?, number, holder, expiration_date, number_hash FROM card_info WHERE id = ?""",
+                neighbour.getId(), cardId))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        mockMvc.perform(delete("/api/card_info/{id}", cardId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/card_info")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CardDTO(null, neighbour.getId(), "4000000000000000", "Neighbour", "12/30"))))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void searchShouldMergeShardsInRankOrderBackedByTrigramIndexes() throws Exception {
+        Integer[] ids = createUsers().stream().map(user -> user.getId().intValue()).sorted().toArray(Integer[]::new);
+
+        String body = mockMvc.perform(get("/api/users/search?q=sharded&size=4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(ids[0], ids[1], ids[2], ids[3])))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/users/search?q=sharded&size=4&cursor={cursor}",
+                        JsonPath.<String>read(body, "$.next")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(ids[4], ids[5])))
+                .andExpect(jsonPath("$.next").doesNotExist());
+        mockMvc.perform(get("/api/users/search?q=ARO"))
+                .andExpect(jsonPath("$.content[*].name", contains("Carol")));
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            assertThat(shards.jdbc(shard).queryForList(
+                    "SELECT indexname FROM pg_indexes WHERE schemaname = ? AND indexdef LIKE '%gin_trgm_ops%'",
+                    String.class, shards.schema(shard)))
+                    .containsExactlyInAnyOrder("idx_users_name_trgm", "idx_users_surname_trgm", "idx_users_email_trgm");
+        }
+    }
+
+    @Test
+    void bulkDeleteShouldSpanShardsAndReleaseEmails() throws Exception {
+        List<UserDTO> users = createUsers();
+        String ids = users.stream().map(user -> String.valueOf(user.getId())).toList().toString();
+
+        mockMvc.perform(post("/api/users/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": " + ids + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted.length()", is(users.size())));
+
+        mockMvc.perform(get("/api/users/email/{email}", users.get(0).getEmail()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/users/{id}", users.get(0).getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(user("Again", users.get(0).getEmail()))))
+                .andExpect(status().isCreated());
+    }
+
+    private List<UserDTO> createUsers() throws Exception {
+        List<UserDTO> users = new ArrayList<>();
+        for (String name : NAMES) {
+            String body = mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(user(name, name.toLowerCase() + "@example.com"))))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            users.add(objectMapper.readValue(body, UserDTO.class));
+        }
+        return users;
+    }
+
+    private static UserDTO user(String name, String email) {
+        return new UserDTO(null, name, "Sharded", LocalDate.of(1990, 1, 1), email);
+    }
+
+    private static Set<String> partitionsScanned(JdbcTemplate jdbc, String query) {
+        Set<String> partitions = new HashSet<>();
+        for (String line : jdbc.queryForList("EXPLAIN " + query, String.class)) {
+            Matcher matcher = PARTITION.matcher(line);
+            while (matcher.find()) {
+                partitions.add(matcher.group());
+            }
+        }
+        return partitions;
+    }
+
+    private int rowCount(int shard, long id) {
+        return shards.jdbc(shard).queryForObject("SELECT count(*) FROM users WHERE id = ?", Integer.class, id);
+    }
+}
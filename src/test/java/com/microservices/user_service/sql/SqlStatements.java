@@ -0,0 +1,94 @@
+package com.microservices.user_service.sql;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.assertj.core.api.AbstractAssert;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+
+/**
+ * Assertions on the SQL statements executed by the current thread, recorded by {@link SqlStatementCountConfig}.
+ * <pre>
+ * assertThatSql(() -> mockMvc.perform(get("/api/users/{id}", 1L)))
+ *         .hasSelectCount(1)
+ *         .hasTotalCount(1);
+ * </pre>
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    /**
+     * Runs {@code action} and asserts on the statements it executed, e.g. one service call or MockMvc request.
+     */
+    public static StatementCountAssert assertThatSql(ThrowingCallable action) {
+        QueryCountHolder.clear();
+        try {
+            action.call();
+        } catch (Throwable e) {
+            throw new AssertionError("Action under SQL statement count failed", e);
+        }
+        return new StatementCountAssert(snapshot());
+    }
+
+    private static QueryCount snapshot() {
+        QueryCount total = QueryCountHolder.getGrandTotal();
+        QueryCount copy = new QueryCount();
+        copy.setSelect(total.getSelect());
+        copy.setInsert(total.getInsert());
+        copy.setUpdate(total.getUpdate());
+        copy.setDelete(total.getDelete());
+        copy.setOther(total.getOther());
+        copy.setTotal(total.getTotal());
+        return copy;
+    }
+
+    public static class StatementCountAssert extends AbstractAssert<StatementCountAssert, QueryCount> {
+
+        private StatementCountAssert(QueryCount actual) {
+            super(actual, StatementCountAssert.class);
+        }
+
+        public StatementCountAssert hasSelectCount(int expected) {
+            return hasCount("SELECT", actual.getSelect(), expected);
+        }
+
+        public StatementCountAssert hasSelectCountAtMost(int max) {
+            isNotNull();
+            if (actual.getSelect() > max) {
+                failWithMessage("Expected at most %d SELECT statement(s) but was %d", max, actual.getSelect());
+            }
+            return this;
+        }
+
+        public StatementCountAssert hasInsertCount(int expected) {
+            return hasCount("INSERT", actual.getInsert(), expected);
+        }
+
+        public StatementCountAssert hasUpdateCount(int expected) {
+            return hasCount("UPDATE", actual.getUpdate(), expected);
+        }
+
+        public StatementCountAssert hasDeleteCount(int expected) {
+            return hasCount("DELETE", actual.getDelete(), expected);
+        }
+
+        public StatementCountAssert hasTotalCount(int expected) {
+            return hasCount("total", actual.getTotal(), expected);
+        }
+
+        public StatementCountAssert hasNoStatements() {
+            return hasTotalCount(0);
+        }
+
+        private StatementCountAssert hasCount(String type, long count, int expected) {
+            isNotNull();
+            if (count != expected) {
+                failWithMessage("Expected %d %s statement(s) but was %d (select=%d, insert=%d, update=%d, delete=%d, other=%d)",
+                        expected, type, count, actual.getSelect(), actual.getInsert(), actual.getUpdate(),
+                        actual.getDelete(), actual.getOther());
+            }
+            return this;
+        }
+    }
+}
@@ -1,3 +1,4 @@
+DELETE FROM user_card_deltas;
 DELETE FROM card_info;
 DELETE FROM users;
 
@@ -1,7 +1,11 @@
-INSERT INTO card_info (id, user_id, number, holder, expiration_date)
+INSERT INTO card_info (id, user_id, number, number_hash, holder, expiration_date, expires_on)
 VALUES
-    (1, 1, '1111222233334444', 'Test User', '12/25'),
-    (2, 1, '5555666677778888', 'Test User', '06/24'),
-    (3, 2, '9999888877776666', 'Jane Smith', '03/26');
+    (1, 1, '1111222233334444', decode('9f21c5e227911e2a41415df07116c336', 'hex'), 'Test User', '12/25', '2026-01-01'),
+    (2, 1, '5555666677778888', decode('1b6c7e6e7861a8295cc4c26d48c564ec', 'hex'), 'Test User', '06/24', '2024-07-01'),
+    (3, 2, '9999888877776666', decode('b9e0c7a88cb4b2c73ce6a9032f0c241d', 'hex'), 'Jane Smith', '03/26', '2026-04-01');
 
-SELECT setval('card_info_id_seq', COALESCE((SELECT MAX(id) FROM card_info), 1));
\ No newline at end of file
+SELECT setval('card_info_id_seq', COALESCE((SELECT MAX(id) FROM card_info), 1));
+
+UPDATE users u
+SET card_count = (SELECT count(*) FROM card_info c WHERE c.user_id = u.id),
+    next_card_expiry = (SELECT min(c.expires_on) FROM card_info c WHERE c.user_id = u.id);
\ No newline at end of file
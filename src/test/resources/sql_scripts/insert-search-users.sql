@@ -0,0 +1,15 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public;
+
+INSERT INTO users (id, name, surname, birth_date, email)
+VALUES
+    (3, 'Smithson', 'Adams', '1991-02-03', 'sa@example.com'),
+    (4, 'Anna', 'Goldsmith', '1992-03-04', 'anna.g@example.com'),
+    (5, 'Smith', 'Brown', '1993-04-05', 'sb@example.com'),
+    (6, 'Leela', 'Kim', '1994-05-06', 'lk@example.com'),
+    (7, 'Ashlee', 'Park', '1995-06-07', 'ap@example.com'),
+    (8, 'Kathleen', 'Ross', '1996-07-08', 'kr@example.com'),
+    (9, 'Colleen', 'Hart', '1997-08-09', 'ch@example.com'),
+    (10, 'Fleeta', 'Moss', '1998-09-10', 'fm@example.com'),
+    (11, 'Lee', 'Wong', '1999-10-11', 'lw@example.com');
+
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 1));